@@ -7,6 +7,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Arrays;
@@ -16,6 +17,7 @@ import java.util.Arrays;
  * Main entry point for the Prime Wraps Spring Boot application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class PrimeWrapsApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(PrimeWrapsApplication.class);
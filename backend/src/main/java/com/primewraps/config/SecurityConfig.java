@@ -1,6 +1,7 @@
 package com.primewraps.config;
 
 import com.primewraps.filter.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -74,6 +75,10 @@ public class SecurityConfig {
             
             // Configure authorization rules
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches complete streaming responses whose request was already authorized;
+                // the JWT filter does not run for them, so they carry no authentication of their own
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Allow all requests to auth and contact endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/contact/**").permitAll()
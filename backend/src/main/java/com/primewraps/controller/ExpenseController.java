@@ -1,14 +1,42 @@
 package com.primewraps.controller;
 
+import com.primewraps.dto.BulkStatusUpdateRequest;
 import com.primewraps.dto.ExpenseDTO;
+import com.primewraps.dto.ExpensePage;
 import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.dto.ExpenseSearchRequest;
+import com.primewraps.model.ExpenseCategory;
 import com.primewraps.model.ExpenseStatus;
+import com.primewraps.service.ExpenseImportService;
+import com.primewraps.service.ExpenseRollupService;
 import com.primewraps.service.ExpenseService;
+import com.primewraps.service.ExportService;
+import com.primewraps.service.ReceiptStorageService;
+import com.primewraps.service.RecurringExpenseGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,9 +47,32 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ExpenseController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseController.class);
+
+    // Tomcat request attributes for zero-copy file transfer
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private RecurringExpenseGenerator recurringExpenseGenerator;
+
+    @Autowired
+    private ReceiptStorageService receiptStorageService;
+
     /**
      * Create a new expense.
      */
@@ -32,21 +83,162 @@ public class ExpenseController {
             ExpenseDTO expense = expenseService.createExpense(request);
             return ResponseEntity.ok(expense);
         } catch (Exception e) {
-            System.err.println("Error creating expense: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error creating expense: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error creating expense: " + e.getMessage());
         }
     }
 
     /**
-     * Get all expenses.
+     * Import expenses in bulk from a CSV or NDJSON upload.
+     * Invalid rows are skipped and reported by line; settlements are recomputed once for the whole import.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importExpenses(@RequestParam("file") MultipartFile file,
+                                            @RequestParam(required = false) String format) {
+        try (InputStream input = file.getInputStream()) {
+            ExpenseImportService.ImportResult result = expenseImportService.importExpenses(input, format, file.getOriginalFilename());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing expenses", e);
+            return ResponseEntity.internalServerError().body("Error importing expenses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Export expenses as CSV or NDJSON, oldest first.
+     * Dates are inclusive; rows are streamed, so the export size is not limited by memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(required = false) String category,
+                                            @RequestParam(required = false) String status) {
+        try {
+            ExpenseCategory expenseCategory = category != null ? ExpenseCategory.valueOf(category.toUpperCase()) : null;
+            ExpenseStatus expenseStatus = status != null ? ExpenseStatus.valueOf(status.toUpperCase()) : null;
+            String contentType = exportService.contentTypeOf(format);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + format.toLowerCase() + "\"")
+                    .body(exportService.exportExpenses(format, from, to, expenseCategory, expenseStatus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ExportService.messageBody(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get spend per month, grouped by category (default) or user, read from the daily rollups.
+     * Dates are inclusive; status may be repeated and defaults to every status except REJECTED.
+     */
+    @GetMapping("/analytics/monthly")
+    public ResponseEntity<?> getMonthlySpend(@RequestParam(defaultValue = "category") String groupBy,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(required = false) List<String> status) {
+        try {
+            return ResponseEntity.ok(expenseRollupService.getMonthlySpend(groupBy, from, to, parseStatuses(status)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error reading monthly spend", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Get spend per quarter, grouped by category (default) or user, read from the daily rollups.
+     */
+    @GetMapping("/analytics/quarterly")
+    public ResponseEntity<?> getQuarterlySpend(@RequestParam(defaultValue = "category") String groupBy,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(required = false) List<String> status) {
+        try {
+            return ResponseEntity.ok(expenseRollupService.getQuarterlySpend(groupBy, from, to, parseStatuses(status)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error reading quarterly spend", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Rebuild the daily expense rollups from the full expense history.
+     */
+    @PostMapping("/analytics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRollups() {
+        try {
+            return ResponseEntity.ok(expenseRollupService.rebuild());
+        } catch (Exception e) {
+            logger.error("Error rebuilding expense rollups", e);
+            return ResponseEntity.internalServerError().body("Error rebuilding expense rollups: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generate the due occurrences of recurring expenses now instead of waiting for the next scheduled run.
+     */
+    @PostMapping("/recurring/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> generateRecurringExpenses() {
+        try {
+            recurringExpenseGenerator.generateDueOccurrences();
+            return ResponseEntity.ok(recurringExpenseGenerator.getStatus());
+        } catch (Exception e) {
+            logger.error("Error generating recurring expenses", e);
+            return ResponseEntity.internalServerError().body("Error generating recurring expenses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get templates processed, expenses generated and run durations of the recurring expense generator.
+     */
+    @GetMapping("/recurring/generator-status")
+    public ResponseEntity<?> getRecurringGeneratorStatus() {
+        return ResponseEntity.ok(recurringExpenseGenerator.getStatus());
+    }
+
+    /**
+     * Get one page of expenses, newest first unless sort is date,asc.
+     * Pass the returned nextCursor as cursor to read the following page.
      */
     @GetMapping
-    public ResponseEntity<List<ExpenseDTO>> getAllExpenses() {
+    public ResponseEntity<?> getAllExpenses(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size,
+                                            @RequestParam(defaultValue = "date,desc") String sort) {
+        try {
+            ExpensePage expenses = expenseService.getAllExpenses(cursor, size, sort);
+            return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Search expenses by any combination of status, category, payer, job, date range, amount range
+     * and the shared and tax-deductible flags. Results are paged like the other listings.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchExpenses(ExpenseSearchRequest request,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size,
+                                            @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getAllExpenses();
+            ExpensePage expenses = expenseService.searchExpenses(request, cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            logger.error("Error searching expenses", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -67,6 +259,7 @@ public class ExpenseController {
 
     /**
      * Update an expense.
+     * Responds with 409 when the request carries a version and the expense has changed since.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -74,6 +267,8 @@ public class ExpenseController {
         try {
             ExpenseDTO expense = expenseService.updateExpense(id, request);
             return ResponseEntity.ok(expense);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -93,6 +288,73 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * Upload a receipt for an expense as a PDF or image.
+     * The file is streamed to the receipt store, so memory use does not grow with its size.
+     */
+    @PostMapping(value = "/{id}/receipt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> uploadReceipt(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        if (expenseService.getExpenseById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try (InputStream input = file.getInputStream()) {
+            ReceiptStorageService.StoredReceipt receipt = receiptStorageService.store(input);
+            return ResponseEntity.ok(expenseService.attachReceipt(id, receipt.getUrl()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error storing receipt for expense {}", id, e);
+            return ResponseEntity.internalServerError().body("Error storing receipt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Download a stored receipt. Supports range requests; receipts never change, so they are cacheable for a year.
+     */
+    @GetMapping("/receipts/{key}")
+    public ResponseEntity<?> downloadReceipt(@PathVariable String key, HttpServletRequest request) {
+        return receiptStorageService.findReceipt(key)
+                .map(path -> serveFile(path, receiptStorageService.contentTypeOf(key), "\"" + key + "\"", request))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Download the thumbnail of an image receipt.
+     * Thumbnails are generated in the background, so this returns 404 until one is ready.
+     */
+    @GetMapping("/receipts/{key}/thumbnail")
+    public ResponseEntity<?> downloadReceiptThumbnail(@PathVariable String key, HttpServletRequest request) {
+        return receiptStorageService.findThumbnail(key)
+                .map(path -> serveFile(path, MediaType.IMAGE_JPEG_VALUE, "\"" + key + "-thumbnail\"", request))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get generated, dropped and queued counts of receipt thumbnail generation.
+     */
+    @GetMapping("/receipts/thumbnail-status")
+    public ResponseEntity<?> getReceiptThumbnailStatus() {
+        return ResponseEntity.ok(receiptStorageService.getThumbnailStatus());
+    }
+
+    /**
+     * Change the status of many expenses at once, selected by ID or by search filter.
+     * Returns the new version of each updated expense and the reason each other one was left unchanged.
+     */
+    @PutMapping("/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateExpenseStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(expenseService.updateExpenseStatuses(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error updating expense statuses", e);
+            return ResponseEntity.internalServerError().body("Error updating expense statuses: " + e.getMessage());
+        }
+    }
+
     /**
      * Update expense status.
      */
@@ -112,13 +374,18 @@ public class ExpenseController {
      * Get expenses by status.
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<ExpenseDTO>> getExpensesByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getExpensesByStatus(@PathVariable String status,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int size,
+                                                 @RequestParam(defaultValue = "date,desc") String sort) {
         try {
             ExpenseStatus expenseStatus = ExpenseStatus.valueOf(status.toUpperCase());
-            List<ExpenseDTO> expenses = expenseService.getExpensesByStatus(expenseStatus);
+            ExpensePage expenses = expenseService.getExpensesByStatus(expenseStatus, cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.internalServerError().build();
         }
     }
 
@@ -126,10 +393,12 @@ public class ExpenseController {
      * Get expenses by category.
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ExpenseDTO>> getExpensesByCategory(@PathVariable String category) {
+    public ResponseEntity<?> getExpensesByCategory(@PathVariable String category) {
         try {
             List<ExpenseDTO> expenses = expenseService.getExpensesByCategory(category);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -139,10 +408,15 @@ public class ExpenseController {
      * Get expenses by user.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ExpenseDTO>> getExpensesByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getExpensesByUser(@PathVariable Long userId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int size,
+                                               @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getExpensesByUser(userId);
+            ExpensePage expenses = expenseService.getExpensesByUser(userId, cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -152,10 +426,15 @@ public class ExpenseController {
      * Get expenses by job.
      */
     @GetMapping("/job/{jobId}")
-    public ResponseEntity<List<ExpenseDTO>> getExpensesByJob(@PathVariable Long jobId) {
+    public ResponseEntity<?> getExpensesByJob(@PathVariable Long jobId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int size,
+                                              @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getExpensesByJob(jobId);
+            ExpensePage expenses = expenseService.getExpensesByJob(jobId, cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -178,10 +457,14 @@ public class ExpenseController {
      * Get shared expenses.
      */
     @GetMapping("/shared")
-    public ResponseEntity<List<ExpenseDTO>> getSharedExpenses() {
+    public ResponseEntity<?> getSharedExpenses(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int size,
+                                               @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getSharedExpenses();
+            ExpensePage expenses = expenseService.getSharedExpenses(cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -191,10 +474,14 @@ public class ExpenseController {
      * Get tax deductible expenses.
      */
     @GetMapping("/tax-deductible")
-    public ResponseEntity<List<ExpenseDTO>> getTaxDeductibleExpenses() {
+    public ResponseEntity<?> getTaxDeductibleExpenses(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int size,
+                                                      @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getTaxDeductibleExpenses();
+            ExpensePage expenses = expenseService.getTaxDeductibleExpenses(cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -204,12 +491,57 @@ public class ExpenseController {
      * Get recurring expenses.
      */
     @GetMapping("/recurring")
-    public ResponseEntity<List<ExpenseDTO>> getRecurringExpenses() {
+    public ResponseEntity<?> getRecurringExpenses(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size,
+                                                  @RequestParam(defaultValue = "date,desc") String sort) {
         try {
-            List<ExpenseDTO> expenses = expenseService.getRecurringExpenses();
+            ExpensePage expenses = expenseService.getRecurringExpenses(cursor, size, sort);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // Helper method to serve an immutable file, letting Tomcat send it with sendfile when the whole file is requested
+    private ResponseEntity<?> serveFile(Path path, String contentType, String etag, HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            try {
+                long length = Files.size(path);
+                request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, length);
+                return ResponseEntity.ok().headers(headers).contentType(MediaType.parseMediaType(contentType))
+                        .contentLength(length).build();
+            } catch (IOException e) {
+                logger.warn("Falling back to streamed download of {}: {}", path, e.getMessage());
+            }
+        }
+
+        // Range requests are answered with 206 and the requested regions by the resource message converter
+        return ResponseEntity.ok().headers(headers).contentType(MediaType.parseMediaType(contentType))
+                .body(new FileSystemResource(path));
+    }
+
+    // Helper method to parse repeated status parameters
+    private List<ExpenseStatus> parseStatuses(List<String> statuses) {
+        List<ExpenseStatus> parsed = new ArrayList<>();
+        if (statuses != null) {
+            for (String status : statuses) {
+                parsed.add(ExpenseStatus.valueOf(status.trim().toUpperCase()));
+            }
+        }
+        return parsed;
+    }
 }
@@ -1,12 +1,18 @@
 package com.primewraps.controller;
 
 import com.primewraps.model.JobStatus;
+import com.primewraps.service.ExportService;
+import com.primewraps.service.JobCostReconciler;
 import com.primewraps.service.JobService;
 import com.primewraps.dto.JobRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -21,6 +27,12 @@ public class JobController {
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JobCostReconciler jobCostReconciler;
+
     /**
      * Create a new job.
      */
@@ -37,6 +49,26 @@ public class JobController {
         return jobService.getAllJobs();
     }
 
+    /**
+     * Export jobs starting within the date range as CSV or NDJSON.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportJobs(@RequestParam(defaultValue = "csv") String format,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(required = false) String status) {
+        try {
+            JobStatus jobStatus = status != null ? JobStatus.valueOf(status.toUpperCase()) : null;
+            String contentType = exportService.contentTypeOf(format);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"jobs." + format.toLowerCase() + "\"")
+                    .body(exportService.exportJobs(format, from, to, jobStatus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ExportService.messageBody(e.getMessage()));
+        }
+    }
+
     /**
      * Get a job by ID.
      */
@@ -142,4 +174,26 @@ public class JobController {
     public ResponseEntity<?> getJobSummary() {
         return jobService.getJobSummary();
     }
+
+    /**
+     * Recompute every job's total expenses from its expenses now instead of waiting for the nightly run.
+     */
+    @PostMapping("/reconcile-costs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconcileJobCosts() {
+        try {
+            jobCostReconciler.reconcile();
+            return ResponseEntity.ok(jobCostReconciler.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error reconciling job costs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get drifted jobs and run durations of the scheduled job cost reconciliation.
+     */
+    @GetMapping("/cost-reconciliation-status")
+    public ResponseEntity<?> getCostReconciliationStatus() {
+        return ResponseEntity.ok(jobCostReconciler.getStatus());
+    }
 }
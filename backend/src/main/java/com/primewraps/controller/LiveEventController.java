@@ -0,0 +1,55 @@
+package com.primewraps.controller;
+
+import com.primewraps.service.LiveEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for the live update stream.
+ * Admin dashboards subscribe here instead of polling the list and summary endpoints.
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class LiveEventController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveEventController.class);
+
+    @Autowired
+    private LiveEventService liveEventService;
+
+    /**
+     * Open a Server-Sent Events stream of expense, settlement and job updates.
+     * Responds with 503 when the maximum number of connections is reached.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(Authentication authentication) {
+        try {
+            return ResponseEntity.ok()
+                    // Keep buffering proxies from holding events back
+                    .header("X-Accel-Buffering", "no")
+                    .body(liveEventService.subscribe(authentication.getName()));
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected live event subscription for {}: {}", authentication.getName(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
+    /**
+     * Get connection and delivery counters of the live update stream.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(liveEventService.getStatus());
+    }
+}
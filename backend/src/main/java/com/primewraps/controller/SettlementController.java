@@ -2,17 +2,28 @@ package com.primewraps.controller;
 
 import com.primewraps.model.Settlement;
 import com.primewraps.model.SettlementStatus;
+import com.primewraps.service.ExportService;
+import com.primewraps.service.SettlementOverdueSweeper;
+import com.primewraps.service.SettlementRecomputeScheduler;
 import com.primewraps.service.SettlementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.stream.Collectors;
 import com.primewraps.dto.PartialPaymentRequest;
+import com.primewraps.dto.SettlementSimulationRequest;
 
 /**
  * REST controller for Settlement-related operations.
@@ -22,9 +33,20 @@ import com.primewraps.dto.PartialPaymentRequest;
 @CrossOrigin(origins = "*")
 public class SettlementController {
 
+    private static final Logger logger = LoggerFactory.getLogger(SettlementController.class);
+
     @Autowired
     private SettlementService settlementService;
 
+    @Autowired
+    private SettlementRecomputeScheduler settlementRecomputeScheduler;
+
+    @Autowired
+    private SettlementOverdueSweeper settlementOverdueSweeper;
+
+    @Autowired
+    private ExportService exportService;
+
     /**
      * Create a new settlement.
      */
@@ -41,6 +63,26 @@ public class SettlementController {
         return settlementService.getAllSettlements();
     }
 
+    /**
+     * Export settlements created within the date range as CSV or NDJSON.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSettlements(@RequestParam(defaultValue = "csv") String format,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(required = false) String status) {
+        try {
+            SettlementStatus settlementStatus = status != null ? SettlementStatus.valueOf(status.toUpperCase()) : null;
+            String contentType = exportService.contentTypeOf(format);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"settlements." + format.toLowerCase() + "\"")
+                    .body(exportService.exportSettlements(format, from, to, settlementStatus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ExportService.messageBody(e.getMessage()));
+        }
+    }
+
     /**
      * Get a settlement by ID.
      */
@@ -55,7 +97,13 @@ public class SettlementController {
     @PutMapping("/{id}")
     // @PreAuthorize("hasRole('ADMIN')") // Temporarily removed
     public ResponseEntity<?> updateSettlement(@PathVariable Long id, @RequestBody Settlement settlement) {
-        return settlementService.updateSettlement(id, settlement);
+        try {
+            return ResponseEntity.ok(settlementService.updateSettlement(id, settlement));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error updating settlement: " + e.getMessage());
+        }
     }
 
     /**
@@ -91,6 +139,18 @@ public class SettlementController {
         }
     }
 
+    /**
+     * Get the payments made between two users in either direction, newest first.
+     */
+    @GetMapping("/payments")
+    public ResponseEntity<?> getPaymentHistory(
+            @RequestParam Long userId,
+            @RequestParam Long otherUserId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return settlementService.getPaymentHistory(userId, otherUserId, page, size);
+    }
+
     /**
      * Get settlements by status.
      */
@@ -112,22 +172,16 @@ public class SettlementController {
      */
     @GetMapping("/pending")
     public ResponseEntity<?> getPendingSettlements() {
-        System.out.println("SettlementController: getPendingSettlements called");
-        
-        // Debug authentication
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null) {
-            System.out.println("SettlementController: Authenticated user: " + auth.getName());
-            System.out.println("SettlementController: User authorities: " + auth.getAuthorities());
-        } else {
-            System.out.println("SettlementController: No authentication found");
+        if (logger.isDebugEnabled()) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            logger.debug("Pending settlements requested by {} with authorities {}",
+                    auth != null ? auth.getName() : "anonymous", auth != null ? auth.getAuthorities() : "[]");
         }
-        
+
         try {
             return settlementService.getPendingSettlements();
         } catch (Exception e) {
-            System.err.println("SettlementController: Error in getPendingSettlements: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching pending settlements", e);
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
     }
@@ -142,10 +196,29 @@ public class SettlementController {
 
     /**
      * Calculate settlements based on shared expenses.
+     * @param strategy Optional settlement strategy ("greedy" or "minimum"); defaults to the configured strategy.
      */
     @GetMapping("/calculate")
-    public ResponseEntity<?> calculateSettlements() {
-        return settlementService.calculateSettlements();
+    public ResponseEntity<?> calculateSettlements(@RequestParam(required = false) String strategy) {
+        return settlementService.calculateSettlements(strategy);
+    }
+
+    /**
+     * Preview balances and settlement suggestions after hypothetical expenses, removals and payments.
+     * Nothing is persisted.
+     */
+    @PostMapping("/simulate")
+    public ResponseEntity<?> simulateSettlements(@RequestBody SettlementSimulationRequest request) {
+        return settlementService.simulateSettlements(request);
+    }
+
+    /**
+     * Rebuild the per-user balance ledger from the full history.
+     */
+    @PostMapping("/rebuild-balances")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildBalances() {
+        return settlementService.rebuildBalances();
     }
 
     /**
@@ -161,6 +234,22 @@ public class SettlementController {
         }
     }
 
+    /**
+     * Get the version and timestamp of the last background settlement recompute.
+     */
+    @GetMapping("/recompute-status")
+    public ResponseEntity<?> getRecomputeStatus() {
+        return ResponseEntity.ok(settlementRecomputeScheduler.getStatus());
+    }
+
+    /**
+     * Get rows moved and run durations of the scheduled overdue sweep.
+     */
+    @GetMapping("/overdue-sweep-status")
+    public ResponseEntity<?> getOverdueSweepStatus() {
+        return ResponseEntity.ok(settlementOverdueSweeper.getStatus());
+    }
+
     /**
      * Get settlement summary statistics.
      */
@@ -192,6 +281,8 @@ public class SettlementController {
         try {
             Settlement paymentRecord = settlementService.createPartialPaymentRecord(request);
             return ResponseEntity.ok(paymentRecord);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error creating partial payment record: " + e.getMessage());
         }
@@ -0,0 +1,39 @@
+package com.primewraps.controller;
+
+import com.primewraps.service.ChangeFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for incremental client synchronization.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class SyncController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    /**
+     * Get the expenses, jobs and settlements written, and the IDs of those deleted, since the given sequence number.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since) {
+        try {
+            return ResponseEntity.ok(changeFeedService.getChanges(since));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error reading changes", e);
+            return ResponseEntity.internalServerError().body("Error reading changes: " + e.getMessage());
+        }
+    }
+}
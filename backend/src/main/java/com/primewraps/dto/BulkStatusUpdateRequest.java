@@ -0,0 +1,54 @@
+package com.primewraps.dto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for changing the status of many expenses at once.
+ * Expenses are selected either by ID or by a search filter, not both. With IDs, the versions the client last read
+ * can be given per ID; an expense that has changed since is left unchanged.
+ */
+public class BulkStatusUpdateRequest {
+    private List<Long> ids = new ArrayList<>();
+    private ExpenseSearchRequest filter;
+    private String status;
+    private Map<Long, Long> versions = new HashMap<>();
+
+    // Default constructor
+    public BulkStatusUpdateRequest() {}
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public ExpenseSearchRequest getFilter() {
+        return filter;
+    }
+
+    public void setFilter(ExpenseSearchRequest filter) {
+        this.filter = filter;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Map<Long, Long> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(Map<Long, Long> versions) {
+        this.versions = versions;
+    }
+}
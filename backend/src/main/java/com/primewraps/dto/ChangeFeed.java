@@ -0,0 +1,124 @@
+package com.primewraps.dto;
+
+import com.primewraps.model.Job;
+import com.primewraps.model.Settlement;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the records changed since a client's last sync.
+ * Apply the upserted records first, then drop the deleted IDs, and pass nextSince as since on the next sync.
+ * If fullResync is true the lists are empty: reload the full lists, then continue from nextSince.
+ */
+public class ChangeFeed {
+
+    private long since;
+    private long nextSince;
+    private boolean fullResync;
+    private List<ExpenseDTO> expenses;
+    private List<Job> jobs;
+    private List<Settlement> settlements;
+    private List<Long> deletedExpenseIds;
+    private List<Long> deletedJobIds;
+    private List<Long> deletedSettlementIds;
+
+    // Default constructor
+    public ChangeFeed() {}
+
+    // Constructor with parameters
+    public ChangeFeed(long since, long nextSince, boolean fullResync, List<ExpenseDTO> expenses, List<Job> jobs,
+                      List<Settlement> settlements, List<Long> deletedExpenseIds, List<Long> deletedJobIds,
+                      List<Long> deletedSettlementIds) {
+        this.since = since;
+        this.nextSince = nextSince;
+        this.fullResync = fullResync;
+        this.expenses = expenses;
+        this.jobs = jobs;
+        this.settlements = settlements;
+        this.deletedExpenseIds = deletedExpenseIds;
+        this.deletedJobIds = deletedJobIds;
+        this.deletedSettlementIds = deletedSettlementIds;
+    }
+
+    /**
+     * Create a response telling the client to reload its lists and continue from the given sequence number.
+     */
+    public static ChangeFeed fullResync(long since, long nextSince) {
+        return new ChangeFeed(since, nextSince, true, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    // Getters and Setters
+    public long getSince() {
+        return since;
+    }
+
+    public void setSince(long since) {
+        this.since = since;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isFullResync() {
+        return fullResync;
+    }
+
+    public void setFullResync(boolean fullResync) {
+        this.fullResync = fullResync;
+    }
+
+    public List<ExpenseDTO> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<ExpenseDTO> expenses) {
+        this.expenses = expenses;
+    }
+
+    public List<Job> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<Job> jobs) {
+        this.jobs = jobs;
+    }
+
+    public List<Settlement> getSettlements() {
+        return settlements;
+    }
+
+    public void setSettlements(List<Settlement> settlements) {
+        this.settlements = settlements;
+    }
+
+    public List<Long> getDeletedExpenseIds() {
+        return deletedExpenseIds;
+    }
+
+    public void setDeletedExpenseIds(List<Long> deletedExpenseIds) {
+        this.deletedExpenseIds = deletedExpenseIds;
+    }
+
+    public List<Long> getDeletedJobIds() {
+        return deletedJobIds;
+    }
+
+    public void setDeletedJobIds(List<Long> deletedJobIds) {
+        this.deletedJobIds = deletedJobIds;
+    }
+
+    public List<Long> getDeletedSettlementIds() {
+        return deletedSettlementIds;
+    }
+
+    public void setDeletedSettlementIds(List<Long> deletedSettlementIds) {
+        this.deletedSettlementIds = deletedSettlementIds;
+    }
+}
@@ -12,12 +12,14 @@ import com.primewraps.dto.ExpenseSplitDTO;
 public class ExpenseDTO {
 
     private Long id;
+    private long version;
     private String description;
     private BigDecimal amount;
     private String category;
     private String status;
     private LocalDateTime date;
     private String notes;
+    private String receiptUrl;
     private boolean isTaxDeductible;
     private boolean isRecurring;
     private String recurringFrequency;
@@ -30,6 +32,8 @@ public class ExpenseDTO {
     private int splitCount;
     private List<ExpenseSplitDTO> splitUsers;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long changeSeq;
 
     // Getters and Setters
 
@@ -41,6 +45,14 @@ public class ExpenseDTO {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -89,6 +101,14 @@ public class ExpenseDTO {
         this.notes = notes;
     }
 
+    public String getReceiptUrl() {
+        return receiptUrl;
+    }
+
+    public void setReceiptUrl(String receiptUrl) {
+        this.receiptUrl = receiptUrl;
+    }
+
     public boolean isTaxDeductible() {
         return isTaxDeductible;
     }
@@ -184,4 +204,20 @@ public class ExpenseDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 }
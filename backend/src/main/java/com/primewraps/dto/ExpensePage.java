@@ -0,0 +1,63 @@
+package com.primewraps.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of expenses read with keyset pagination.
+ * Pass nextCursor back as the cursor parameter to read the following page; it is null on the last page.
+ */
+public class ExpensePage {
+
+    private List<ExpenseDTO> content;
+    private int size;
+    private String sort;
+    private String nextCursor;
+
+    // Default constructor
+    public ExpensePage() {}
+
+    // Constructor with parameters
+    public ExpensePage(List<ExpenseDTO> content, int size, String sort, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.sort = sort;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<ExpenseDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ExpenseDTO> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
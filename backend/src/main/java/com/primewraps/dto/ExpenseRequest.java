@@ -1,6 +1,9 @@
 package com.primewraps.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -12,6 +15,9 @@ import java.util.List;
  * DTO for expense creation and updates.
  */
 public class ExpenseRequest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRequest.class);
+
     private String description;
     private BigDecimal amount;
     private String category;
@@ -25,6 +31,8 @@ public class ExpenseRequest {
     private Long jobId;
     private boolean isSharedExpense;
     private List<Long> splitUserIds;
+    // Version the client last read; when set, the update is rejected if the expense has changed since
+    private Long version;
 
     // Default constructor
     public ExpenseRequest() {}
@@ -100,7 +108,7 @@ public class ExpenseRequest {
                     this.date = utcTime.toLocalDateTime();
                 }
             } catch (Exception e) {
-                System.err.println("Error parsing date string: " + dateString + " - " + e.getMessage());
+                logger.warn("Could not parse date string {}, using the current time: {}", dateString, e.getMessage());
                 // Fallback: set to current time in Pacific timezone
                 ZoneId pacificZone = ZoneId.of("America/Los_Angeles");
                 ZonedDateTime pacificTime = ZonedDateTime.now(pacificZone);
@@ -177,6 +185,14 @@ public class ExpenseRequest {
     public void setSplitUserIds(List<Long> splitUserIds) {
         this.splitUserIds = splitUserIds;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 
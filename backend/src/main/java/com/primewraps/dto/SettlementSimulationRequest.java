@@ -0,0 +1,138 @@
+package com.primewraps.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a what-if settlement simulation.
+ * Hypothetical changes are applied on top of the current balances without persisting anything.
+ */
+public class SettlementSimulationRequest {
+    private List<SimulatedExpense> addExpenses = new ArrayList<>();
+    private List<Long> removeExpenseIds = new ArrayList<>();
+    private List<SimulatedPayment> payments = new ArrayList<>();
+    private String strategy;
+
+    // Default constructor
+    public SettlementSimulationRequest() {}
+
+    // Getters and Setters
+    public List<SimulatedExpense> getAddExpenses() {
+        return addExpenses;
+    }
+
+    public void setAddExpenses(List<SimulatedExpense> addExpenses) {
+        this.addExpenses = addExpenses;
+    }
+
+    public List<Long> getRemoveExpenseIds() {
+        return removeExpenseIds;
+    }
+
+    public void setRemoveExpenseIds(List<Long> removeExpenseIds) {
+        this.removeExpenseIds = removeExpenseIds;
+    }
+
+    public List<SimulatedPayment> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<SimulatedPayment> payments) {
+        this.payments = payments;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * A shared expense that would be added, split between the payer and the split users.
+     */
+    public static class SimulatedExpense {
+        private BigDecimal amount;
+        private Long paidByUserId;
+        private List<Long> splitUserIds = new ArrayList<>();
+
+        // Default constructor
+        public SimulatedExpense() {}
+
+        public SimulatedExpense(BigDecimal amount, Long paidByUserId, List<Long> splitUserIds) {
+            this.amount = amount;
+            this.paidByUserId = paidByUserId;
+            this.splitUserIds = splitUserIds;
+        }
+
+        // Getters and Setters
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Long getPaidByUserId() {
+            return paidByUserId;
+        }
+
+        public void setPaidByUserId(Long paidByUserId) {
+            this.paidByUserId = paidByUserId;
+        }
+
+        public List<Long> getSplitUserIds() {
+            return splitUserIds;
+        }
+
+        public void setSplitUserIds(List<Long> splitUserIds) {
+            this.splitUserIds = splitUserIds;
+        }
+    }
+
+    /**
+     * A payment that would be made from one user to another.
+     */
+    public static class SimulatedPayment {
+        private Long fromUserId;
+        private Long toUserId;
+        private BigDecimal amount;
+
+        // Default constructor
+        public SimulatedPayment() {}
+
+        public SimulatedPayment(Long fromUserId, Long toUserId, BigDecimal amount) {
+            this.fromUserId = fromUserId;
+            this.toUserId = toUserId;
+            this.amount = amount;
+        }
+
+        // Getters and Setters
+        public Long getFromUserId() {
+            return fromUserId;
+        }
+
+        public void setFromUserId(Long fromUserId) {
+            this.fromUserId = fromUserId;
+        }
+
+        public Long getToUserId() {
+            return toUserId;
+        }
+
+        public void setToUserId(Long toUserId) {
+            this.toUserId = toUserId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.primewraps.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Published whenever expenses, expense splits or settlements are modified.
+ * Listeners that react after commit use this to refresh derived settlement state.
+ */
+public class FinancialDataChangedEvent {
+
+    private final boolean balancesChanged;
+    private final boolean partitionsKnown;
+    private final Set<Long> jobIds;
+    private final boolean unassignedChanged;
+
+    /**
+     * @param balancesChanged Whether the change moved balances in a way the persisted settlements do not reflect yet,
+     *                        i.e. settlements need recomputing. Payments that adjust their own settlement in place pass false.
+     */
+    public FinancialDataChangedEvent(boolean balancesChanged) {
+        this.balancesChanged = balancesChanged;
+        this.partitionsKnown = false;
+        this.jobIds = Collections.emptySet();
+        this.unassignedChanged = false;
+    }
+
+    private FinancialDataChangedEvent(boolean balancesChanged, Set<Long> jobIds, boolean unassignedChanged) {
+        this.balancesChanged = balancesChanged;
+        this.partitionsKnown = true;
+        this.jobIds = Collections.unmodifiableSet(jobIds);
+        this.unassignedChanged = unassignedChanged;
+    }
+
+    /**
+     * Create an event for a change that only touched records of the given jobs.
+     * A null job ID stands for records that are not assigned to any job.
+     */
+    public static FinancialDataChangedEvent forJobs(boolean balancesChanged, Collection<Long> jobIds) {
+        Set<Long> assigned = new HashSet<>();
+        boolean unassigned = false;
+        for (Long jobId : jobIds) {
+            if (jobId == null) {
+                unassigned = true;
+            } else {
+                assigned.add(jobId);
+            }
+        }
+        return new FinancialDataChangedEvent(balancesChanged, assigned, unassigned);
+    }
+
+    public boolean isBalancesChanged() {
+        return balancesChanged;
+    }
+
+    /**
+     * Whether the affected settlement partitions are known; if not, every partition must be treated as changed.
+     */
+    public boolean isPartitionsKnown() {
+        return partitionsKnown;
+    }
+
+    public Set<Long> getJobIds() {
+        return jobIds;
+    }
+
+    public boolean isUnassignedChanged() {
+        return unassignedChanged;
+    }
+}
@@ -0,0 +1,46 @@
+package com.primewraps.event;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Published whenever expenses linked to jobs are created, changed or deleted.
+ * Carries the change in each job's total expenses, so the job totals can be adjusted after commit
+ * without summing the job's expenses again.
+ */
+public class JobCostsChangedEvent {
+
+    private final Map<Long, BigDecimal> deltas;
+
+    /**
+     * @param deltas Change in total expenses keyed by job ID; zero changes are dropped.
+     */
+    public JobCostsChangedEvent(Map<Long, BigDecimal> deltas) {
+        Map<Long, BigDecimal> nonZero = new HashMap<>();
+        deltas.forEach((jobId, delta) -> {
+            if (jobId != null && delta.signum() != 0) {
+                nonZero.put(jobId, delta);
+            }
+        });
+        this.deltas = Collections.unmodifiableMap(nonZero);
+    }
+
+    /**
+     * Create an event for the difference between job cost contributions before and after a change.
+     */
+    public static JobCostsChangedEvent between(Map<Long, BigDecimal> before, Map<Long, BigDecimal> after) {
+        Map<Long, BigDecimal> deltas = new HashMap<>(after);
+        before.forEach((jobId, amount) -> deltas.merge(jobId, amount.negate(), BigDecimal::add));
+        return new JobCostsChangedEvent(deltas);
+    }
+
+    public Map<Long, BigDecimal> getDeltas() {
+        return deltas;
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.primewraps.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Published when connected dashboards should refresh part of what they show.
+ * Events are pushed to /api/events subscribers once the publishing transaction commits, and only carry
+ * IDs and counts; clients fetch the records they need through the regular endpoints.
+ */
+public class LiveUpdateEvent {
+
+    public static final String EXPENSE_CREATED = "expense-created";
+    public static final String EXPENSE_APPROVED = "expense-approved";
+    public static final String SETTLEMENTS_RECOMPUTED = "settlements-recomputed";
+    public static final String JOB_STATUS_CHANGED = "job-status-changed";
+
+    // Larger batches only report their count, so an import does not push thousands of IDs to every client
+    private static final int MAX_LISTED_IDS = 100;
+
+    private final String type;
+    private final Map<String, Object> data;
+
+    private LiveUpdateEvent(String type, Map<String, Object> data) {
+        this.type = type;
+        this.data = Collections.unmodifiableMap(data);
+    }
+
+    public static LiveUpdateEvent expenseCreated(Long expenseId, Long jobId) {
+        return expenses(EXPENSE_CREATED, 1, Collections.singletonList(expenseId), Collections.singletonList(jobId));
+    }
+
+    /**
+     * Create an event for expenses created in bulk, e.g. by an import or the recurring expense generator.
+     */
+    public static LiveUpdateEvent expensesCreated(int count, Collection<Long> jobIds) {
+        return expenses(EXPENSE_CREATED, count, null, jobIds);
+    }
+
+    public static LiveUpdateEvent expensesApproved(Collection<Long> expenseIds, Collection<Long> jobIds) {
+        return expenses(EXPENSE_APPROVED, expenseIds.size(), expenseIds, jobIds);
+    }
+
+    public static LiveUpdateEvent settlementsRecomputed(int created, int updated, int cancelled) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("created", created);
+        data.put("updated", updated);
+        data.put("cancelled", cancelled);
+        return new LiveUpdateEvent(SETTLEMENTS_RECOMPUTED, data);
+    }
+
+    public static LiveUpdateEvent jobStatusChanged(Long jobId, String previousStatus, String status) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("jobId", jobId);
+        data.put("previousStatus", previousStatus);
+        data.put("status", status);
+        return new LiveUpdateEvent(JOB_STATUS_CHANGED, data);
+    }
+
+    // Helper method to build an expense event; null job IDs stand for expenses without a job and are left out
+    private static LiveUpdateEvent expenses(String type, int count, Collection<Long> expenseIds, Collection<Long> jobIds) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", count);
+        if (expenseIds != null && expenseIds.size() <= MAX_LISTED_IDS) {
+            data.put("expenseIds", new TreeSet<>(expenseIds));
+        }
+        TreeSet<Long> assignedJobIds = new TreeSet<>();
+        jobIds.stream().filter(Objects::nonNull).forEach(assignedJobIds::add);
+        data.put("jobIds", assignedJobIds);
+        return new LiveUpdateEvent(type, data);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+}
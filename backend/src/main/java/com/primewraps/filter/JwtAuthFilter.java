@@ -7,6 +7,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * JWT Authentication Filter.
@@ -34,6 +36,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    // Log one in every N requests at INFO (0 disables sampling); with DEBUG enabled every request is logged
+    @Value("${request-logging.sample-every:100}")
+    private int sampleEvery;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
     /**
      * Performs the actual filtering logic.
      * Extracts JWT from the request, validates it, and sets up Spring Security context.
@@ -45,8 +53,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
      */
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
-        logger.info("JWT Filter processing request: {} {}", request.getMethod(), request.getRequestURI());
-        
+        long startNanos = System.nanoTime();
+
         String authHeader = request.getHeader("Authorization");
         String token = null;
         String username = null;
@@ -67,9 +75,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
-        
-        logger.info("JWT Filter continuing to next filter for: {} {}", request.getMethod(), request.getRequestURI());
-        filterChain.doFilter(request, response); // Continue with the filter chain
+
+        try {
+            filterChain.doFilter(request, response); // Continue with the filter chain
+        } finally {
+            logRequest(request, response, startNanos);
+        }
+    }
+
+    // Helper method to log a completed request when it is sampled or DEBUG is enabled
+    private void logRequest(HttpServletRequest request, HttpServletResponse response, long startNanos) {
+        boolean sampled = sampleEvery > 0 && requestCount.incrementAndGet() % sampleEvery == 0;
+        if (!sampled && !logger.isDebugEnabled()) {
+            return;
+        }
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        if (sampled) {
+            logger.info("{} {} -> {} in {} ms (sampled 1 in {})", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), durationMs, sampleEvery);
+        } else {
+            logger.debug("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(), response.getStatus(), durationMs);
+        }
     }
 
     /**
@@ -84,7 +110,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();
         // Skip login and register, but allow /me endpoint
         boolean shouldSkip = (path.startsWith("/api/auth/") && !path.equals("/api/auth/me")) || path.startsWith("/api/contact/");
-        logger.info("JWT Filter shouldNotFilter check for {}: {}", path, shouldSkip);
+        logger.trace("JWT Filter shouldNotFilter check for {}: {}", path, shouldSkip);
         return shouldSkip;
     }
 }
\ No newline at end of file
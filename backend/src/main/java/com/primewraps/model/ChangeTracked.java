@@ -0,0 +1,26 @@
+package com.primewraps.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entity whose writes are published through the sync change feed.
+ * Each insert or update stamps the row with the next change sequence number and the time of the change,
+ * and each delete leaves a tombstone.
+ */
+public interface ChangeTracked {
+
+    Long getId();
+
+    /**
+     * Get the kind of record this is in the change feed.
+     */
+    SyncEntityType syncEntityType();
+
+    long getChangeSeq();
+
+    void setChangeSeq(long changeSeq);
+
+    LocalDateTime getUpdatedAt();
+
+    void setUpdatedAt(LocalDateTime updatedAt);
+}
@@ -0,0 +1,44 @@
+package com.primewraps.model;
+
+import com.primewraps.service.ChangeSequence;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Stamps change-tracked entities as Hibernate writes them and records a tombstone when one is deleted.
+ * Bulk JPQL updates and JDBC batches bypass entity callbacks, so they stamp the rows themselves.
+ */
+public class ChangeTrackingListener {
+
+    private static final String INSERT_TOMBSTONE_SQL = "INSERT INTO sync_tombstones"
+            + " (entity_type, entity_id, change_seq, deleted_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(ChangeTracked entity) {
+        entity.setChangeSeq(changeSequence.next());
+        entity.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Record the deletion in the deleting transaction. Written with JDBC since callbacks
+     * must not use the entity manager; the statement shares the transaction's connection.
+     */
+    @PreRemove
+    public void recordDeletion(ChangeTracked entity) {
+        jdbcTemplate.update(INSERT_TOMBSTONE_SQL, entity.syncEntityType().name(), entity.getId(),
+                changeSequence.next(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -1,7 +1,9 @@
 package com.primewraps.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.HashSet;
@@ -11,13 +13,43 @@ import java.util.HashSet;
  * This entity tracks all expenses with categories, status, and relationships.
  */
 @Entity
-@Table(name = "expenses")
-public class Expense {
+// Read paths fetch the single-valued associations convertToDTO needs in the same query
+@NamedEntityGraph(name = "Expense.details", attributeNodes = {
+    @NamedAttributeNode("paidByUser"),
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("job")
+})
+@Table(name = "expenses", uniqueConstraints = {
+    // At most one generated occurrence per recurring template and month, so catch-up runs cannot duplicate
+    @UniqueConstraint(name = "uk_expenses_recurrence_period", columnNames = {"recurrence_template_id", "recurrence_period"})
+}, indexes = {
+    // Keyset pagination reads every expense listing as a range scan in (date, id) order
+    @Index(name = "idx_expenses_date_id", columnList = "date, id"),
+    @Index(name = "idx_expenses_status_date_id", columnList = "status, date, id"),
+    @Index(name = "idx_expenses_paid_by_date_id", columnList = "paid_by_user_id, date, id"),
+    @Index(name = "idx_expenses_job_date_id", columnList = "job_id, date, id"),
+    @Index(name = "idx_expenses_shared_date_id", columnList = "is_shared_expense, date, id"),
+    // Searches lead with the most selective equality filter and still read in (date, id) order
+    @Index(name = "idx_expenses_category_date_id", columnList = "category, date, id"),
+    @Index(name = "idx_expenses_status_paid_by_date_id", columnList = "status, paid_by_user_id, date, id"),
+    @Index(name = "idx_expenses_tax_deductible_date_id", columnList = "is_tax_deductible, date, id"),
+    // The recurring generator reads only the templates that are due
+    @Index(name = "idx_expenses_next_due_date", columnList = "next_due_date"),
+    // The sync change feed reads rows written after a client's last sequence number
+    @Index(name = "idx_expenses_change_seq", columnList = "change_seq")
+})
+@EntityListeners(ChangeTrackingListener.class)
+public class Expense implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Incremented by every update, including bulk status changes, so concurrent edits are detected
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false)
     private String description;
 
@@ -38,6 +70,13 @@ public class Expense {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Position of the row's latest write in the sync change feed
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
     @Column
     private String receiptUrl;
 
@@ -53,6 +92,15 @@ public class Expense {
     @Column
     private String recurringFrequency; // monthly, quarterly, yearly
 
+    @Column
+    private LocalDateTime nextDueDate; // Next occurrence to generate, set only on recurring templates
+
+    @Column
+    private Long recurrenceTemplateId; // Template this occurrence was generated from (no FK, templates may be deleted)
+
+    @Column
+    private LocalDate recurrencePeriod; // First day of the month this occurrence was generated for
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paid_by_user_id", nullable = false)
     private User paidByUser;
@@ -71,12 +119,15 @@ public class Expense {
     @Column(nullable = false)
     private int splitCount; // Number of people splitting this expense
 
+    // Loaded for a whole page of expenses at once rather than one query per expense
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private Set<ExpenseSplit> splitUsers = new HashSet<>();
 
     // Default constructor
     public Expense() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
         this.date = LocalDateTime.now();
         this.status = ExpenseStatus.PENDING;
         this.isTaxDeductible = false;
@@ -94,6 +145,14 @@ public class Expense {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -142,6 +201,31 @@ public class Expense {
         this.createdAt = createdAt;
     }
 
+    @Override
+    public SyncEntityType syncEntityType() {
+        return SyncEntityType.EXPENSE;
+    }
+
+    @Override
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    @Override
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public String getReceiptUrl() {
         return receiptUrl;
     }
@@ -182,6 +266,30 @@ public class Expense {
         this.recurringFrequency = recurringFrequency;
     }
 
+    public LocalDateTime getNextDueDate() {
+        return nextDueDate;
+    }
+
+    public void setNextDueDate(LocalDateTime nextDueDate) {
+        this.nextDueDate = nextDueDate;
+    }
+
+    public Long getRecurrenceTemplateId() {
+        return recurrenceTemplateId;
+    }
+
+    public void setRecurrenceTemplateId(Long recurrenceTemplateId) {
+        this.recurrenceTemplateId = recurrenceTemplateId;
+    }
+
+    public LocalDate getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+
+    public void setRecurrencePeriod(LocalDate recurrencePeriod) {
+        this.recurrencePeriod = recurrencePeriod;
+    }
+
     public User getPaidByUser() {
         return paidByUser;
     }
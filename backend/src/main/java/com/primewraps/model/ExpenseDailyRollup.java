@@ -0,0 +1,144 @@
+package com.primewraps.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the total and count of expenses for one day, category, status, payer and job.
+ * Rows are maintained incrementally whenever an expense is created, updated, deleted or changes status,
+ * so spend reports read a few hundred rollup rows instead of scanning the expense table.
+ * Expenses without a job are rolled up under job ID 0, so the unique key also covers them.
+ */
+@Entity
+@Table(name = "expense_daily_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_expense_daily_rollups_key",
+        columnNames = {"rollup_date", "category", "status", "paid_by_user_id", "job_id"}),
+    indexes = @Index(name = "idx_expense_daily_rollups_category_date", columnList = "category, rollup_date"))
+public class ExpenseDailyRollup {
+
+    // Job ID stored for expenses that are not assigned to a job
+    public static final long NO_JOB = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExpenseCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExpenseStatus status;
+
+    @Column(name = "paid_by_user_id", nullable = false)
+    private Long paidByUserId;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private long expenseCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public ExpenseDailyRollup() {
+        this.totalAmount = BigDecimal.ZERO;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public ExpenseDailyRollup(LocalDate day, ExpenseCategory category, ExpenseStatus status, Long paidByUserId, Long jobId,
+                              BigDecimal totalAmount, long expenseCount) {
+        this.day = day;
+        this.category = category;
+        this.status = status;
+        this.paidByUserId = paidByUserId;
+        this.jobId = jobId;
+        this.totalAmount = totalAmount;
+        this.expenseCount = expenseCount;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public ExpenseCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(ExpenseCategory category) {
+        this.category = category;
+    }
+
+    public ExpenseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExpenseStatus status) {
+        this.status = status;
+    }
+
+    public Long getPaidByUserId() {
+        return paidByUserId;
+    }
+
+    public void setPaidByUserId(Long paidByUserId) {
+        this.paidByUserId = paidByUserId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -18,4 +18,24 @@ public enum ExpenseStatus {
     public String getDisplayName() {
         return displayName;
     }
+
+    /**
+     * Check whether an expense in this status may be moved to the target status in a bulk update.
+     * Pending expenses are approved or rejected, approved ones are reimbursed or sent back,
+     * rejected ones may be reopened and a reimbursement may be undone.
+     */
+    public boolean canTransitionTo(ExpenseStatus target) {
+        switch (this) {
+            case PENDING:
+                return target == APPROVED || target == REJECTED;
+            case APPROVED:
+                return target == REIMBURSED || target == REJECTED || target == PENDING;
+            case REJECTED:
+                return target == PENDING || target == APPROVED;
+            case REIMBURSED:
+                return target == APPROVED;
+            default:
+                return false;
+        }
+    }
 }
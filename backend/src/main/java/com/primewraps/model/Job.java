@@ -11,8 +11,12 @@ import java.util.Set;
  * This entity tracks jobs with team assignments, status, and financial information.
  */
 @Entity
-@Table(name = "jobs")
-public class Job {
+@Table(name = "jobs", indexes = {
+    // The sync change feed reads rows written after a client's last sequence number
+    @Index(name = "idx_jobs_change_seq", columnList = "change_seq")
+})
+@EntityListeners(ChangeTrackingListener.class)
+public class Job implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +37,13 @@ public class Job {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Position of the row's latest write in the sync change feed
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private JobStatus status;
@@ -66,6 +77,7 @@ public class Job {
     // Default constructor
     public Job() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
         this.startDate = LocalDateTime.now();
         this.status = JobStatus.IN_PROGRESS;
     }
@@ -119,6 +131,31 @@ public class Job {
         this.createdAt = createdAt;
     }
 
+    @Override
+    public SyncEntityType syncEntityType() {
+        return SyncEntityType.JOB;
+    }
+
+    @Override
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    @Override
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public JobStatus getStatus() {
         return status;
     }
@@ -10,9 +10,17 @@ import java.time.LocalDateTime;
  * This entity tracks who owes who money and payment status.
  */
 @Entity
-@Table(name = "settlements")
+@Table(name = "settlements", indexes = {
+    // Backs the overdue sweep and status listings
+    @Index(name = "idx_settlements_status_due_date", columnList = "status, due_date"),
+    // Backs the payment history of a user pair
+    @Index(name = "idx_settlements_pair_status", columnList = "from_user_id, to_user_id, status"),
+    // The sync change feed reads rows written after a client's last sequence number
+    @Index(name = "idx_settlements_change_seq", columnList = "change_seq")
+})
+@EntityListeners(ChangeTrackingListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-public class Settlement {
+public class Settlement implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +43,13 @@ public class Settlement {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Position of the row's latest write in the sync change feed
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private SettlementStatus status;
@@ -59,6 +74,7 @@ public class Settlement {
     // Default constructor
     public Settlement() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
         this.status = SettlementStatus.PENDING;
     }
 
@@ -111,6 +127,31 @@ public class Settlement {
         this.createdAt = createdAt;
     }
 
+    @Override
+    public SyncEntityType syncEntityType() {
+        return SyncEntityType.SETTLEMENT;
+    }
+
+    @Override
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    @Override
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public SettlementStatus getStatus() {
         return status;
     }
@@ -0,0 +1,10 @@
+package com.primewraps.model;
+
+/**
+ * Enum representing the kinds of records published through the sync change feed.
+ */
+public enum SyncEntityType {
+    EXPENSE,
+    JOB,
+    SETTLEMENT
+}
@@ -0,0 +1,86 @@
+package com.primewraps.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Records the deletion of a change-tracked record, so sync clients can drop it from their copy.
+ * Deleted rows are gone from their own table, so the change feed reads their IDs from here.
+ */
+@Entity
+@Table(name = "sync_tombstones", indexes = {
+    // The change feed reads tombstones past a client's last sequence number
+    @Index(name = "idx_sync_tombstones_change_seq", columnList = "change_seq")
+})
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SyncEntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    // Default constructor
+    public SyncTombstone() {
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    public SyncTombstone(SyncEntityType entityType, Long entityId, long changeSeq) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public SyncEntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(SyncEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.primewraps.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Represents a user's running net balance across shared expenses and payments.
+ * A positive balance means the user is owed money, a negative balance means the user owes money.
+ * Rows are maintained incrementally whenever an expense or settlement affecting the balance changes.
+ */
+@Entity
+@Table(name = "user_balances")
+public class UserBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public UserBalance() {
+        this.balance = BigDecimal.ZERO;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public UserBalance(Long userId, BigDecimal balance) {
+        this.userId = userId;
+        this.balance = balance;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
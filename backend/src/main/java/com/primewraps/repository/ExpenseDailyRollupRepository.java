@@ -0,0 +1,65 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.ExpenseCategory;
+import com.primewraps.model.ExpenseDailyRollup;
+import com.primewraps.model.ExpenseStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for ExpenseDailyRollup entity.
+ */
+@Repository
+public interface ExpenseDailyRollupRepository extends JpaRepository<ExpenseDailyRollup, Long>, ExpenseDailyRollupRepositoryCustom {
+
+    /**
+     * Sum spend per month and category for days in [from, to) with one of the given statuses.
+     * Each row is (year, month, category, total, count); a null bound leaves that side of the range open.
+     */
+    @Query("SELECT YEAR(r.day), MONTH(r.day), r.category, SUM(r.totalAmount), SUM(r.expenseCount) " +
+           "FROM ExpenseDailyRollup r " +
+           "WHERE (:from IS NULL OR r.day >= :from) AND (:to IS NULL OR r.day < :to) AND r.status IN :statuses " +
+           "GROUP BY YEAR(r.day), MONTH(r.day), r.category " +
+           "ORDER BY YEAR(r.day), MONTH(r.day), r.category")
+    List<Object[]> sumByMonthAndCategory(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("statuses") Collection<ExpenseStatus> statuses);
+
+    /**
+     * Sum spend per month and payer for days in [from, to) with one of the given statuses.
+     * Each row is (year, month, userId, username, total, count); a null bound leaves that side of the range open.
+     */
+    @Query("SELECT YEAR(r.day), MONTH(r.day), r.paidByUserId, u.username, SUM(r.totalAmount), SUM(r.expenseCount) " +
+           "FROM ExpenseDailyRollup r LEFT JOIN User u ON u.id = r.paidByUserId " +
+           "WHERE (:from IS NULL OR r.day >= :from) AND (:to IS NULL OR r.day < :to) AND r.status IN :statuses " +
+           "GROUP BY YEAR(r.day), MONTH(r.day), r.paidByUserId, u.username " +
+           "ORDER BY YEAR(r.day), MONTH(r.day), r.paidByUserId")
+    List<Object[]> sumByMonthAndPayer(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("statuses") Collection<ExpenseStatus> statuses);
+
+    /**
+     * Sum the spend of one payer over the days in [from, to), across all statuses.
+     */
+    @Query("SELECT SUM(r.totalAmount) FROM ExpenseDailyRollup r " +
+           "WHERE r.paidByUserId = :userId AND r.day >= :from AND r.day < :to")
+    BigDecimal sumByPayerBetweenDays(@Param("userId") Long userId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    /**
+     * Sum the spend of one category over the days in [from, to), across all statuses.
+     */
+    @Query("SELECT SUM(r.totalAmount) FROM ExpenseDailyRollup r " +
+           "WHERE r.category = :category AND r.day >= :from AND r.day < :to")
+    BigDecimal sumByCategoryBetweenDays(@Param("category") ExpenseCategory category,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+}
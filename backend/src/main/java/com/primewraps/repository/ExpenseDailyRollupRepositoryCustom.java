@@ -0,0 +1,20 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.ExpenseDailyRollup;
+
+import java.util.List;
+
+/**
+ * Set-based write operations for ExpenseDailyRollup that bypass per-entity saves.
+ */
+public interface ExpenseDailyRollupRepositoryCustom {
+
+    /**
+     * Add amount and count deltas to rollup rows, creating the row of a key seen for the first time.
+     * Each row is one atomic upsert on the rollup key, so concurrent first writes for the same day add up
+     * instead of colliding on the unique constraint.
+     * @param deltas Rollups whose total amount and expense count hold the deltas to add, one per distinct key.
+     * @return The number of rollup rows written.
+     */
+    int upsertDeltas(List<ExpenseDailyRollup> deltas);
+}
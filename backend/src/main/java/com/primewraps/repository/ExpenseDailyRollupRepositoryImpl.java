@@ -0,0 +1,65 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.ExpenseDailyRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JDBC-backed implementation of {@link ExpenseDailyRollupRepositoryCustom}.
+ */
+public class ExpenseDailyRollupRepositoryImpl implements ExpenseDailyRollupRepositoryCustom {
+
+    private static final String UPSERT_SQL = "INSERT INTO expense_daily_rollups"
+            + " (rollup_date, category, status, paid_by_user_id, job_id, total_amount, expense_count, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (rollup_date, category, status, paid_by_user_id, job_id) DO UPDATE SET"
+            + " total_amount = expense_daily_rollups.total_amount + EXCLUDED.total_amount,"
+            + " expense_count = expense_daily_rollups.expense_count + EXCLUDED.expense_count,"
+            + " updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL = "MERGE INTO expense_daily_rollups r"
+            + " USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT),"
+            + " CAST(? AS BIGINT), CAST(? AS NUMERIC(14, 2)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP)))"
+            + " v (rollup_date, category, status, paid_by_user_id, job_id, total_amount, expense_count, updated_at)"
+            + " ON r.rollup_date = v.rollup_date AND r.category = v.category AND r.status = v.status"
+            + " AND r.paid_by_user_id = v.paid_by_user_id AND r.job_id = v.job_id"
+            + " WHEN MATCHED THEN UPDATE SET total_amount = r.total_amount + v.total_amount,"
+            + " expense_count = r.expense_count + v.expense_count, updated_at = v.updated_at"
+            + " WHEN NOT MATCHED THEN INSERT"
+            + " (rollup_date, category, status, paid_by_user_id, job_id, total_amount, expense_count, updated_at)"
+            + " VALUES (v.rollup_date, v.category, v.status, v.paid_by_user_id, v.job_id, v.total_amount, v.expense_count, v.updated_at)";
+
+    // Same column order as the unique key, so concurrent batches lock rows in the same order and cannot deadlock
+    private static final Comparator<ExpenseDailyRollup> KEY_ORDER = Comparator
+            .comparing(ExpenseDailyRollup::getDay)
+            .thenComparing(rollup -> rollup.getCategory().name())
+            .thenComparing(rollup -> rollup.getStatus().name())
+            .thenComparing(ExpenseDailyRollup::getPaidByUserId)
+            .thenComparing(ExpenseDailyRollup::getJobId);
+
+    @Autowired
+    private UpsertExecutor upsertExecutor;
+
+    @Override
+    public int upsertDeltas(List<ExpenseDailyRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<ExpenseDailyRollup> sorted = new ArrayList<>(deltas);
+        sorted.sort(KEY_ORDER);
+        List<Object[]> rows = new ArrayList<>(sorted.size());
+        for (ExpenseDailyRollup delta : sorted) {
+            rows.add(new Object[] { Date.valueOf(delta.getDay()), delta.getCategory().name(), delta.getStatus().name(),
+                    delta.getPaidByUserId(), delta.getJobId(), delta.getTotalAmount(), delta.getExpenseCount(), now });
+        }
+        upsertExecutor.upsert(UPSERT_SQL, MERGE_SQL, rows);
+        return rows.size();
+    }
+}
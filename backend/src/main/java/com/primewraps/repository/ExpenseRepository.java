@@ -1,41 +1,111 @@
 package com.primewraps.repository;
 
 import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseCategory;
 import com.primewraps.model.ExpenseStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Expense entity.
  */
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense>, ExpenseRepositoryCustom {
+
+    /**
+     * Entity graph that fetches the payer, creator and job of each expense with the expense itself.
+     * Split users are batch fetched per page through the @BatchSize mapping on Expense.splitUsers.
+     */
+    String DETAILS_GRAPH = "Expense.details";
+
+    /**
+     * Rows fetched per round trip when streaming exports.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Balance deltas of shared PENDING/APPROVED expenses and PAID settlements as (job_id, user_id, delta) rows.
+     * Expense amounts are split into whole-cent shares using the largest remainder method, matching
+     * BalanceLedgerService: the payer takes the first share, split users follow in user ID order,
+     * and the first (cents mod split_count) participants pay one extra cent.
+     */
+    String BALANCE_DELTAS = "SELECT e.job_id AS job_id, e.paid_by_user_id AS user_id,"
+            + "   e.amount - CASE WHEN e.split_count > 1 THEN CAST(CAST(e.amount * 100 AS BIGINT) / e.split_count"
+            + "     + CASE WHEN MOD(CAST(e.amount * 100 AS BIGINT), e.split_count) > 0 THEN 1 ELSE 0 END AS DECIMAL(19, 2)) / 100"
+            + "   ELSE 0 END AS delta"
+            + " FROM expenses e"
+            + " WHERE e.is_shared_expense = TRUE AND e.status IN ('PENDING', 'APPROVED')"
+            + " UNION ALL"
+            + " SELECT p.job_id, p.user_id, -CAST(p.cents / p.split_count"
+            + "   + CASE WHEN p.share_rank <= MOD(p.cents, p.split_count) THEN 1 ELSE 0 END AS DECIMAL(19, 2)) / 100"
+            + " FROM (SELECT e.job_id, es.user_id, CAST(e.amount * 100 AS BIGINT) AS cents, e.split_count,"
+            + "     1 + ROW_NUMBER() OVER (PARTITION BY es.expense_id ORDER BY es.user_id, es.id) AS share_rank"
+            + "   FROM expense_splits es JOIN expenses e ON e.id = es.expense_id"
+            + "   WHERE e.is_shared_expense = TRUE AND e.status IN ('PENDING', 'APPROVED') AND e.split_count > 1) p"
+            + " WHERE p.share_rank <= p.split_count"
+            + " UNION ALL"
+            + " SELECT s.job_id, s.from_user_id, s.amount FROM settlements s WHERE s.status = 'PAID'"
+            + " UNION ALL"
+            + " SELECT s.job_id, s.to_user_id, -s.amount FROM settlements s WHERE s.status = 'PAID'";
+
+    /**
+     * Find an expense by ID together with the associations its DTO needs.
+     */
+    @Override
+    @EntityGraph(DETAILS_GRAPH)
+    Optional<Expense> findById(Long id);
+
+    /**
+     * Find one window of all expenses, positioned by a keyset on the sort properties.
+     */
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find expenses by status.
      */
-    List<Expense> findByStatus(ExpenseStatus status);
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByStatus(ExpenseStatus status, ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find expenses by category.
      */
-    List<Expense> findByCategory(String category);
+    @EntityGraph(DETAILS_GRAPH)
+    List<Expense> findByCategory(ExpenseCategory category);
 
     /**
      * Find expenses by user who paid.
      */
-    List<Expense> findByPaidByUser_Id(Long userId);
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByPaidByUser_Id(Long userId, ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find expenses by job.
      */
-    List<Expense> findByJob_Id(Long jobId);
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByJob_Id(Long jobId, ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find expenses within a date range.
@@ -45,17 +115,44 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     /**
      * Find shared expenses.
      */
-    List<Expense> findByIsSharedExpenseTrue();
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByIsSharedExpenseTrue(ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find tax deductible expenses.
      */
-    List<Expense> findByIsTaxDeductibleTrue();
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByIsTaxDeductibleTrue(ScrollPosition position, Limit limit, Sort sort);
 
     /**
      * Find recurring expenses.
      */
-    List<Expense> findByIsRecurringTrue();
+    @EntityGraph(DETAILS_GRAPH)
+    Window<Expense> findByIsRecurringTrue(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Find recurring templates with an occurrence due by the given time, in ID order after the given ID.
+     */
+    @EntityGraph(DETAILS_GRAPH)
+    @Query("SELECT e FROM Expense e WHERE e.nextDueDate <= :now AND e.id > :afterId ORDER BY e.id")
+    List<Expense> findDueRecurringTemplates(@Param("now") LocalDateTime now,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    /**
+     * Find the periods already generated for the given templates, from the given period on.
+     * Each row is (templateId, period).
+     */
+    @Query("SELECT e.recurrenceTemplateId, e.recurrencePeriod FROM Expense e " +
+           "WHERE e.recurrenceTemplateId IN :templateIds AND e.recurrencePeriod >= :fromPeriod")
+    List<Object[]> findGeneratedPeriods(@Param("templateIds") Collection<Long> templateIds,
+                                        @Param("fromPeriod") LocalDate fromPeriod);
+
+    /**
+     * Find the latest period generated for a template, or null if none has been generated.
+     */
+    @Query("SELECT MAX(e.recurrencePeriod) FROM Expense e WHERE e.recurrenceTemplateId = :templateId")
+    LocalDate findLatestRecurrencePeriod(@Param("templateId") Long templateId);
 
     /**
      * Calculate total expenses by user within a date range.
@@ -69,13 +166,141 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      * Calculate total expenses by category within a date range.
      */
     @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.category = :category AND e.date BETWEEN :startDate AND :endDate")
-    BigDecimal calculateTotalExpensesByCategoryInDateRange(@Param("category") String category, 
+    BigDecimal calculateTotalExpensesByCategoryInDateRange(@Param("category") ExpenseCategory category, 
                                                          @Param("startDate") LocalDateTime startDate, 
                                                          @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Calculate total expenses by user from startDate (inclusive) to endDate (exclusive).
+     * Covers the partial days at the edges of a range whose whole days are read from the daily rollups.
+     */
+    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.paidByUser.id = :userId AND e.date >= :startDate AND e.date < :endDate")
+    BigDecimal calculateTotalExpensesByUserInHalfOpenRange(@Param("userId") Long userId,
+                                                           @Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Calculate total expenses by category from startDate (inclusive) to endDate (exclusive).
+     * Covers the partial days at the edges of a range whose whole days are read from the daily rollups.
+     */
+    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.category = :category AND e.date >= :startDate AND e.date < :endDate")
+    BigDecimal calculateTotalExpensesByCategoryInHalfOpenRange(@Param("category") ExpenseCategory category,
+                                                               @Param("startDate") LocalDateTime startDate,
+                                                               @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Aggregate every expense into daily rollup rows in one query.
+     * Each row is (day, category, status, paidByUserId, jobId, total, count); expenses without a job have jobId 0.
+     */
+    @Query("SELECT CAST(e.date AS LocalDate), e.category, e.status, e.paidByUser.id, COALESCE(j.id, 0), SUM(e.amount), COUNT(e) " +
+           "FROM Expense e LEFT JOIN e.job j " +
+           "GROUP BY CAST(e.date AS LocalDate), e.category, e.status, e.paidByUser.id, COALESCE(j.id, 0)")
+    List<Object[]> aggregateDailyRollups();
+
+    /**
+     * Lock the given expenses for update and read what a bulk status change needs to validate them.
+     * Each row is (id, status, version, isSharedExpense).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id, e.status, e.version, e.isSharedExpense FROM Expense e WHERE e.id IN :ids")
+    List<Object[]> lockStatusesForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Aggregate the given expenses by rollup key, with the same row shape as {@link #aggregateDailyRollups()}.
+     */
+    @Query("SELECT CAST(e.date AS LocalDate), e.category, e.status, e.paidByUser.id, COALESCE(j.id, 0), SUM(e.amount), COUNT(e) " +
+           "FROM Expense e LEFT JOIN e.job j WHERE e.id IN :ids " +
+           "GROUP BY CAST(e.date AS LocalDate), e.category, e.status, e.paidByUser.id, COALESCE(j.id, 0)")
+    List<Object[]> aggregateRollupsForIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Set the status of the given expenses with a single update, incrementing their versions
+     * and stamping them with a change sequence number.
+     * @return The number of rows updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Expense e SET e.status = :status, e.version = e.version + 1, e.changeSeq = :changeSeq, e.updatedAt = :now"
+            + " WHERE e.id IN :ids")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("status") ExpenseStatus status,
+                       @Param("changeSeq") long changeSeq, @Param("now") LocalDateTime now);
+
+    /**
+     * Find expenses written after one change sequence number up to another, in sequence order.
+     */
+    @EntityGraph(DETAILS_GRAPH)
+    @Query("SELECT e FROM Expense e WHERE e.changeSeq > :after AND e.changeSeq <= :upTo ORDER BY e.changeSeq, e.id")
+    List<Expense> findChanged(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * Aggregate the net balance of every user in a single round trip.
+     * Combines payer credits and per-person debits of shared PENDING/APPROVED expenses
+     * (expenses and expense_splits) with PAID settlements, grouped by user.
+     * Each row is (userId, balance).
+     */
+    @Query(value = "SELECT t.user_id, SUM(t.delta) FROM (" + BALANCE_DELTAS + ") t GROUP BY t.user_id", nativeQuery = true)
+    List<Object[]> aggregateNetBalances();
+
+    /**
+     * Aggregate the net balance of every user within every job in a single round trip.
+     * Each row is (jobId, userId, balance); a null jobId groups records that are not assigned to a job.
+     */
+    @Query(value = "SELECT t.job_id, t.user_id, SUM(t.delta) FROM (" + BALANCE_DELTAS + ") t"
+            + " GROUP BY t.job_id, t.user_id", nativeQuery = true)
+    List<Object[]> aggregateNetBalancesByJob();
+
+    /**
+     * Aggregate the net balance of every user within a single job.
+     * Each row is (userId, balance).
+     */
+    @Query(value = "SELECT t.user_id, SUM(t.delta) FROM (" + BALANCE_DELTAS + ") t"
+            + " WHERE t.job_id = :jobId GROUP BY t.user_id", nativeQuery = true)
+    List<Object[]> aggregateNetBalancesForJob(@Param("jobId") Long jobId);
+
+    /**
+     * Aggregate the net balance of every user across records that are not assigned to a job.
+     * Each row is (userId, balance).
+     */
+    @Query(value = "SELECT t.user_id, SUM(t.delta) FROM (" + BALANCE_DELTAS + ") t"
+            + " WHERE t.job_id IS NULL GROUP BY t.user_id", nativeQuery = true)
+    List<Object[]> aggregateUnassignedNetBalances();
+
+    /**
+     * Find the pairs of users linked by a shared expense or a paid settlement that is not assigned to a job.
+     * Each row is (userId, userId); these are the edges of the debt graph used to split unassigned records
+     * into independent settlement partitions.
+     */
+    @Query(value = "SELECT e.paid_by_user_id, es.user_id"
+            + " FROM expense_splits es JOIN expenses e ON e.id = es.expense_id"
+            + " WHERE e.job_id IS NULL AND e.is_shared_expense = TRUE AND e.status IN ('PENDING', 'APPROVED') AND e.split_count > 1"
+            + " UNION"
+            + " SELECT s.from_user_id, s.to_user_id FROM settlements s WHERE s.status = 'PAID' AND s.job_id IS NULL", nativeQuery = true)
+    List<Object[]> findUnassignedDebtEdges();
+
+    /**
+     * Stream expenses for export in (date, id) order, filtered by an optional date range, category and status.
+     * Each row is (expense, paidByUsername, createdByUsername, jobTitle, splitUsernames), with split usernames joined
+     * by semicolons, so no association is loaded per row. Fetch-size and read-only hints keep the result set
+     * on a server-side cursor and out of the dirty-checking snapshot; the stream must be read in a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e, pu.username, cu.username, j.title,"
+            + " (SELECT LISTAGG(su.username, ';') WITHIN GROUP (ORDER BY su.id) FROM ExpenseSplit s JOIN s.user su WHERE s.expense = e)"
+            + " FROM Expense e JOIN e.paidByUser pu JOIN e.createdBy cu LEFT JOIN e.job j"
+            + " WHERE (:from IS NULL OR e.date >= :from) AND (:to IS NULL OR e.date < :to)"
+            + " AND (:category IS NULL OR e.category = :category) AND (:status IS NULL OR e.status = :status)"
+            + " ORDER BY e.date, e.id")
+    Stream<Object[]> streamForExport(@Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("category") ExpenseCategory category,
+                                     @Param("status") ExpenseStatus status);
+
     /**
      * Find expenses pending approval.
      */
+    @EntityGraph(DETAILS_GRAPH)
     @Query("SELECT e FROM Expense e WHERE e.status = 'PENDING' ORDER BY e.date DESC")
     List<Expense> findPendingExpenses();
 }
@@ -0,0 +1,31 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseSplit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Set-based operations for Expense that bypass per-entity loads and saves.
+ */
+public interface ExpenseRepositoryCustom {
+
+    /**
+     * Insert new expenses with a single JDBC batch and set their generated IDs.
+     * Split users are not written; insert them afterwards with {@link #batchInsertSplits(List)}.
+     * @return The number of rows inserted.
+     */
+    int batchInsert(List<Expense> expenses);
+
+    /**
+     * Insert expense splits with a single JDBC batch. Their expenses must already have IDs.
+     * @return The number of rows inserted.
+     */
+    int batchInsertSplits(List<ExpenseSplit> splits);
+
+    /**
+     * Find the IDs of expenses matching a specification, in ID order, without loading the expenses.
+     */
+    List<Long> findIds(Specification<Expense> specification, int limit);
+}
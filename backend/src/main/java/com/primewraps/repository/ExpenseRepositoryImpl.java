@@ -0,0 +1,160 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseSplit;
+import com.primewraps.service.ChangeSequence;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link ExpenseRepositoryCustom}.
+ * Expenses use IDENTITY keys, which prevents Hibernate from batching inserts, so bulk writes go through JdbcTemplate.
+ * Entity callbacks do not run for these writes, so each batch is stamped with its change sequence number here.
+ */
+public class ExpenseRepositoryImpl implements ExpenseRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO expenses"
+            + " (description, amount, category, status, date, created_at, receipt_url, notes, is_tax_deductible,"
+            + " is_recurring, recurring_frequency, paid_by_user_id, created_by_user_id, job_id, is_shared_expense, split_count,"
+            + " next_due_date, recurrence_template_id, recurrence_period, version, change_seq, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SPLIT_SQL = "INSERT INTO expense_splits (expense_id, user_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int batchInsert(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        long changeSeq = changeSequence.next();
+        LocalDateTime now = LocalDateTime.now();
+        for (Expense expense : expenses) {
+            expense.setChangeSeq(changeSeq);
+            expense.setUpdatedAt(now);
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int inserted = sum(jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_SQL, new String[] { "id" }),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Expense expense = expenses.get(i);
+                    ps.setString(1, expense.getDescription());
+                    ps.setBigDecimal(2, expense.getAmount());
+                    ps.setString(3, expense.getCategory().name());
+                    ps.setString(4, expense.getStatus().name());
+                    ps.setTimestamp(5, Timestamp.valueOf(expense.getDate()));
+                    ps.setTimestamp(6, Timestamp.valueOf(expense.getCreatedAt()));
+                    ps.setString(7, expense.getReceiptUrl());
+                    ps.setString(8, expense.getNotes());
+                    ps.setBoolean(9, expense.isTaxDeductible());
+                    ps.setBoolean(10, expense.isRecurring());
+                    ps.setString(11, expense.getRecurringFrequency());
+                    ps.setLong(12, expense.getPaidByUser().getId());
+                    ps.setLong(13, expense.getCreatedBy().getId());
+                    if (expense.getJob() != null) {
+                        ps.setLong(14, expense.getJob().getId());
+                    } else {
+                        ps.setNull(14, Types.BIGINT);
+                    }
+                    ps.setBoolean(15, expense.isSharedExpense());
+                    ps.setInt(16, expense.getSplitCount());
+                    if (expense.getNextDueDate() != null) {
+                        ps.setTimestamp(17, Timestamp.valueOf(expense.getNextDueDate()));
+                    } else {
+                        ps.setNull(17, Types.TIMESTAMP);
+                    }
+                    if (expense.getRecurrenceTemplateId() != null) {
+                        ps.setLong(18, expense.getRecurrenceTemplateId());
+                    } else {
+                        ps.setNull(18, Types.BIGINT);
+                    }
+                    if (expense.getRecurrencePeriod() != null) {
+                        ps.setDate(19, Date.valueOf(expense.getRecurrencePeriod()));
+                    } else {
+                        ps.setNull(19, Types.DATE);
+                    }
+                    ps.setLong(20, expense.getVersion());
+                    ps.setLong(21, expense.getChangeSeq());
+                    ps.setTimestamp(22, Timestamp.valueOf(expense.getUpdatedAt()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return expenses.size();
+                }
+            },
+            keyHolder));
+
+        // Keys come back in insertion order; the column label's case depends on the driver
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < expenses.size(); i++) {
+            expenses.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        return inserted;
+    }
+
+    @Override
+    public int batchInsertSplits(List<ExpenseSplit> splits) {
+        if (splits.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(splits.size());
+        for (ExpenseSplit split : splits) {
+            rows.add(new Object[] { split.getExpense().getId(), split.getUser().getId() });
+        }
+        return sum(jdbcTemplate.batchUpdate(INSERT_SPLIT_SQL, rows));
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Expense> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Expense> root = query.from(Expense.class);
+        query.select(root.get("id"));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,61 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseCategory;
+import com.primewraps.model.ExpenseStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Composable filters for expense searches.
+ * Foreign key filters compare the join column directly, so none of them adds a join to the query.
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {}
+
+    public static Specification<Expense> hasStatusIn(Collection<ExpenseStatus> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Expense> hasCategoryIn(Collection<ExpenseCategory> categories) {
+        return (root, query, cb) -> root.get("category").in(categories);
+    }
+
+    public static Specification<Expense> paidBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("paidByUser").get("id"), userId);
+    }
+
+    public static Specification<Expense> forJob(Long jobId) {
+        return (root, query, cb) -> cb.equal(root.get("job").get("id"), jobId);
+    }
+
+    // Inclusive lower bound on the expense date
+    public static Specification<Expense> onOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    // Exclusive upper bound on the expense date
+    public static Specification<Expense> before(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("date"), to);
+    }
+
+    public static Specification<Expense> amountAtLeast(BigDecimal minAmount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+    }
+
+    public static Specification<Expense> amountAtMost(BigDecimal maxAmount) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), maxAmount);
+    }
+
+    public static Specification<Expense> isShared(boolean shared) {
+        return (root, query, cb) -> cb.equal(root.get("isSharedExpense"), shared);
+    }
+
+    public static Specification<Expense> isTaxDeductible(boolean taxDeductible) {
+        return (root, query, cb) -> cb.equal(root.get("isTaxDeductible"), taxDeductible);
+    }
+}
@@ -2,14 +2,20 @@ package com.primewraps.repository;
 
 import com.primewraps.model.Job;
 import com.primewraps.model.JobStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Job entity.
@@ -32,6 +38,22 @@ public interface JobRepository extends JpaRepository<Job, Long> {
      */
     List<Job> findByStartDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Stream jobs for export in (startDate, id) order, filtered by an optional start date range and status.
+     * Read with the same fetch-size and read-only hints as the expense export; the stream must be read in a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ExpenseRepository.EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT j FROM Job j"
+            + " WHERE (:from IS NULL OR j.startDate >= :from) AND (:to IS NULL OR j.startDate < :to)"
+            + " AND (:status IS NULL OR j.status = :status)"
+            + " ORDER BY j.startDate, j.id")
+    Stream<Job> streamForExport(@Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("status") JobStatus status);
+
     /**
      * Find active jobs (not completed or cancelled).
      */
@@ -83,8 +105,65 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     @Query("SELECT COALESCE(SUM(j.profitMargin), 0) FROM Job j WHERE j.status = 'COMPLETED'")
     BigDecimal calculateTotalProfit();
 
+    /**
+     * Summarize all jobs with a single conditional aggregation.
+     * Returns one row of (total, inProgress, completed, totalRevenue, completedProfit).
+     */
+    @Query("SELECT COUNT(j),"
+            + " COALESCE(SUM(CASE WHEN j.status = com.primewraps.model.JobStatus.IN_PROGRESS THEN 1 ELSE 0 END), 0),"
+            + " COALESCE(SUM(CASE WHEN j.status = com.primewraps.model.JobStatus.COMPLETED THEN 1 ELSE 0 END), 0),"
+            + " COALESCE(SUM(j.totalRevenue), 0),"
+            + " COALESCE(SUM(CASE WHEN j.status = com.primewraps.model.JobStatus.COMPLETED THEN j.profitMargin ELSE 0 END), 0)"
+            + " FROM Job j")
+    List<Object[]> summarize();
+
     /**
      * Count jobs by status.
      */
     long countByStatus(JobStatus status);
+
+    /**
+     * Get the IDs of all jobs.
+     */
+    @Query("SELECT j.id FROM Job j")
+    List<Long> findAllIds();
+
+    /**
+     * Atomically add a delta to a job's total expenses.
+     * @return The number of rows updated (0 if the job no longer exists).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Job j SET j.totalExpenses = COALESCE(j.totalExpenses, 0) + :delta, j.changeSeq = :changeSeq, j.updatedAt = :now"
+            + " WHERE j.id = :jobId")
+    int addToTotalExpenses(@Param("jobId") Long jobId, @Param("delta") BigDecimal delta,
+                           @Param("changeSeq") long changeSeq, @Param("now") LocalDateTime now);
+
+    /**
+     * Find jobs whose stored total expenses differ from the sum of their non-rejected expenses.
+     * Each row is (jobId, storedTotal, actualTotal).
+     */
+    @Query("SELECT j.id, COALESCE(j.totalExpenses, 0), COALESCE(SUM(e.amount), 0)"
+            + " FROM Job j LEFT JOIN Expense e ON e.job = j AND e.status <> com.primewraps.model.ExpenseStatus.REJECTED"
+            + " GROUP BY j.id, j.totalExpenses"
+            + " HAVING COALESCE(j.totalExpenses, 0) <> COALESCE(SUM(e.amount), 0)")
+    List<Object[]> findExpenseTotalDrift();
+
+    /**
+     * Recompute every job's total expenses from its non-rejected expenses in a single statement.
+     * Only jobs whose total changes are written, so a clean run leaves the change feed untouched.
+     * @return The number of jobs updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Job j SET j.totalExpenses = (SELECT COALESCE(SUM(e.amount), 0) FROM Expense e"
+            + " WHERE e.job.id = j.id AND e.status <> com.primewraps.model.ExpenseStatus.REJECTED),"
+            + " j.changeSeq = :changeSeq, j.updatedAt = :now"
+            + " WHERE COALESCE(j.totalExpenses, 0) <> (SELECT COALESCE(SUM(e.amount), 0) FROM Expense e"
+            + " WHERE e.job.id = j.id AND e.status <> com.primewraps.model.ExpenseStatus.REJECTED)")
+    int recomputeTotalExpenses(@Param("changeSeq") long changeSeq, @Param("now") LocalDateTime now);
+
+    /**
+     * Find jobs written after one change sequence number up to another, in sequence order.
+     */
+    @Query("SELECT j FROM Job j WHERE j.changeSeq > :after AND j.changeSeq <= :upTo ORDER BY j.changeSeq, j.id")
+    List<Job> findChanged(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
 }
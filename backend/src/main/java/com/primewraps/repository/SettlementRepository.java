@@ -2,20 +2,32 @@ package com.primewraps.repository;
 
 import com.primewraps.model.Settlement;
 import com.primewraps.model.SettlementStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Settlement entity.
  */
 @Repository
-public interface SettlementRepository extends JpaRepository<Settlement, Long> {
+public interface SettlementRepository extends JpaRepository<Settlement, Long>, SettlementRepositoryCustom {
 
     /**
      * Find settlements by status.
@@ -23,51 +35,115 @@ public interface SettlementRepository extends JpaRepository<Settlement, Long> {
     List<Settlement> findByStatus(SettlementStatus status);
 
     /**
-     * Find settlements by fromUser or toUser.
+     * Stream settlements for export in (createdAt, id) order, filtered by an optional creation date range and status.
+     * Each row is (settlement, fromUsername, toUsername, relatedJobId). Read with the same fetch-size and read-only hints
+     * as the expense export; the stream must be read in a transaction.
      */
-    @Query("SELECT s FROM Settlement s WHERE s.fromUser.id = :fromUserId OR s.toUser.id = :toUserId")
-    List<Settlement> findByFromUserOrToUser(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ExpenseRepository.EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s, fu.username, tu.username, s.relatedJob.id FROM Settlement s JOIN s.fromUser fu JOIN s.toUser tu"
+            + " WHERE (:from IS NULL OR s.createdAt >= :from) AND (:to IS NULL OR s.createdAt < :to)"
+            + " AND (:status IS NULL OR s.status = :status)"
+            + " ORDER BY s.createdAt, s.id")
+    Stream<Object[]> streamForExport(@Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("status") SettlementStatus status);
 
     /**
-     * Find overdue settlements (pending settlements past due date).
+     * Find a settlement by ID, locking its row until the current transaction ends.
      */
-    @Query("SELECT s FROM Settlement s WHERE s.status = 'PENDING' AND s.dueDate < :today")
-    List<Settlement> findOverdueSettlements(@Param("today") LocalDate today);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Settlement s WHERE s.id = :id")
+    Optional<Settlement> findByIdForUpdate(@Param("id") Long id);
 
     /**
-     * Find overdue settlements (pending settlements past due date).
+     * Find PAID settlements between two users in either direction, one page at a time.
      */
-    default List<Settlement> findOverdueSettlements() {
-        return findOverdueSettlements(LocalDate.now());
-    }
+    @Query(value = "SELECT s FROM Settlement s WHERE s.status = com.primewraps.model.SettlementStatus.PAID"
+            + " AND ((s.fromUser.id = :userId AND s.toUser.id = :otherUserId) OR (s.fromUser.id = :otherUserId AND s.toUser.id = :userId))",
+           countQuery = "SELECT COUNT(s) FROM Settlement s WHERE s.status = com.primewraps.model.SettlementStatus.PAID"
+            + " AND ((s.fromUser.id = :userId AND s.toUser.id = :otherUserId) OR (s.fromUser.id = :otherUserId AND s.toUser.id = :userId))")
+    Page<Settlement> findPaymentsBetween(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId, Pageable pageable);
 
     /**
-     * Count settlements by status.
+     * Find settlements with any of the given statuses.
      */
-    long countByStatus(SettlementStatus status);
+    List<Settlement> findByStatusIn(Collection<SettlementStatus> statuses);
+
+    /**
+     * Find the (id, fromUserId, toUserId, amount, jobId) of settlements with the given statuses without loading entities.
+     */
+    @Query("SELECT s.id, s.fromUser.id, s.toUser.id, s.amount, s.relatedJob.id FROM Settlement s WHERE s.status IN :statuses")
+    List<Object[]> findSummariesByStatusIn(@Param("statuses") Collection<SettlementStatus> statuses);
+
+    /**
+     * Find the (id, fromUserId, toUserId, amount, jobId) of settlements with the given statuses within one job.
+     */
+    @Query("SELECT s.id, s.fromUser.id, s.toUser.id, s.amount, s.relatedJob.id FROM Settlement s WHERE s.status IN :statuses AND s.relatedJob.id = :jobId")
+    List<Object[]> findSummariesByStatusInAndJob(@Param("statuses") Collection<SettlementStatus> statuses, @Param("jobId") Long jobId);
+
+    /**
+     * Find the (id, fromUserId, toUserId, amount, jobId) of settlements with the given statuses that are not assigned to a job.
+     */
+    @Query("SELECT s.id, s.fromUser.id, s.toUser.id, s.amount, s.relatedJob.id FROM Settlement s WHERE s.status IN :statuses AND s.relatedJob IS NULL")
+    List<Object[]> findUnassignedSummariesByStatusIn(@Param("statuses") Collection<SettlementStatus> statuses);
 
     /**
-     * Count overdue settlements.
+     * Cancel the given unpaid (PENDING or OVERDUE) settlements with a single bulk update.
      */
-    @Query("SELECT COUNT(s) FROM Settlement s WHERE s.status = 'PENDING' AND s.dueDate < :today")
-    long countOverdueSettlements(@Param("today") LocalDate today);
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Settlement s SET s.status = com.primewraps.model.SettlementStatus.CANCELLED, s.changeSeq = :changeSeq, s.updatedAt = :now"
+            + " WHERE s.status IN (com.primewraps.model.SettlementStatus.PENDING, com.primewraps.model.SettlementStatus.OVERDUE) AND s.id IN :ids")
+    int cancelOpenByIds(@Param("ids") Collection<Long> ids, @Param("changeSeq") long changeSeq, @Param("now") LocalDateTime now);
 
     /**
-     * Count overdue settlements.
+     * Move every PENDING settlement due before the given time to OVERDUE with a single bulk update.
+     * Served by the (status, due_date) index.
+     * @return The number of settlements moved.
      */
-    default long countOverdueSettlements() {
-        return countOverdueSettlements(LocalDate.now());
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Settlement s SET s.status = com.primewraps.model.SettlementStatus.OVERDUE, s.changeSeq = :changeSeq, s.updatedAt = :now"
+            + " WHERE s.status = com.primewraps.model.SettlementStatus.PENDING AND s.dueDate < :now")
+    int markOverdue(@Param("now") LocalDateTime now, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Find settlements written after one change sequence number up to another, in sequence order.
+     */
+    @EntityGraph(attributePaths = {"fromUser", "toUser"})
+    @Query("SELECT s FROM Settlement s WHERE s.changeSeq > :after AND s.changeSeq <= :upTo ORDER BY s.changeSeq, s.id")
+    List<Settlement> findChanged(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * Find settlements by fromUser or toUser.
+     */
+    @Query("SELECT s FROM Settlement s WHERE s.fromUser.id = :fromUserId OR s.toUser.id = :toUserId")
+    List<Settlement> findByFromUserOrToUser(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+
+    /**
+     * Find overdue settlements. Settlements are moved to OVERDUE by SettlementOverdueSweeper.
+     */
+    default List<Settlement> findOverdueSettlements() {
+        return findByStatus(SettlementStatus.OVERDUE);
     }
 
     /**
-     * Calculate total amount across all settlements.
+     * Count settlements by status.
      */
-    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM Settlement s")
-    BigDecimal calculateTotalAmount();
+    long countByStatus(SettlementStatus status);
 
     /**
-     * Calculate total pending amount.
+     * Summarize all settlements with a single conditional aggregation.
+     * Returns one row of (total, unpaid, paid, overdue, totalAmount, unpaidAmount),
+     * where unpaid settlements are PENDING or OVERDUE.
      */
-    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM Settlement s WHERE s.status = 'PENDING'")
-    BigDecimal calculatePendingAmount();
+    @Query("SELECT COUNT(s),"
+            + " COALESCE(SUM(CASE WHEN s.status IN (com.primewraps.model.SettlementStatus.PENDING, com.primewraps.model.SettlementStatus.OVERDUE) THEN 1 ELSE 0 END), 0),"
+            + " COALESCE(SUM(CASE WHEN s.status = com.primewraps.model.SettlementStatus.PAID THEN 1 ELSE 0 END), 0),"
+            + " COALESCE(SUM(CASE WHEN s.status = com.primewraps.model.SettlementStatus.OVERDUE THEN 1 ELSE 0 END), 0),"
+            + " COALESCE(SUM(s.amount), 0),"
+            + " COALESCE(SUM(CASE WHEN s.status IN (com.primewraps.model.SettlementStatus.PENDING, com.primewraps.model.SettlementStatus.OVERDUE) THEN s.amount ELSE 0 END), 0)"
+            + " FROM Settlement s")
+    List<Object[]> summarize();
 }
@@ -0,0 +1,27 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.Settlement;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Set-based write operations for Settlement that bypass per-entity saves.
+ */
+public interface SettlementRepositoryCustom {
+
+    /**
+     * Insert new settlements with a single JDBC batch.
+     * Only the columns a freshly suggested settlement carries are written; generated IDs are not read back.
+     * @return The number of rows inserted.
+     */
+    int batchInsert(Collection<Settlement> settlements);
+
+    /**
+     * Update the amount of existing settlements with a single JDBC batch.
+     * @param amountsById New amounts keyed by settlement ID.
+     * @return The number of rows updated.
+     */
+    int batchUpdateAmounts(Map<Long, BigDecimal> amountsById);
+}
@@ -0,0 +1,79 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.Settlement;
+import com.primewraps.service.ChangeSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed implementation of {@link SettlementRepositoryCustom}.
+ * Settlements use IDENTITY keys, which prevents Hibernate from batching inserts, so these writes go through JdbcTemplate.
+ * Entity callbacks do not run for these writes, so each batch is stamped with its change sequence number here.
+ */
+public class SettlementRepositoryImpl implements SettlementRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO settlements"
+            + " (from_user_id, to_user_id, amount, due_date, created_at, status, job_id, change_seq, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_AMOUNT_SQL = "UPDATE settlements SET amount = ?, change_seq = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Override
+    public int batchInsert(Collection<Settlement> settlements) {
+        if (settlements.isEmpty()) {
+            return 0;
+        }
+        long changeSeq = changeSequence.next();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(settlements.size());
+        for (Settlement settlement : settlements) {
+            rows.add(new Object[] {
+                settlement.getFromUser().getId(),
+                settlement.getToUser().getId(),
+                settlement.getAmount(),
+                Timestamp.valueOf(settlement.getDueDate()),
+                Timestamp.valueOf(settlement.getCreatedAt()),
+                settlement.getStatus().name(),
+                settlement.getRelatedJob() != null ? settlement.getRelatedJob().getId() : null,
+                changeSeq,
+                now
+            });
+        }
+        return sum(jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+    }
+
+    @Override
+    public int batchUpdateAmounts(Map<Long, BigDecimal> amountsById) {
+        if (amountsById.isEmpty()) {
+            return 0;
+        }
+        long changeSeq = changeSequence.next();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(amountsById.size());
+        amountsById.forEach((id, amount) -> rows.add(new Object[] { amount, changeSeq, now, id }));
+        return sum(jdbcTemplate.batchUpdate(UPDATE_AMOUNT_SQL, rows));
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,24 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.SyncTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for SyncTombstone entity.
+ */
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    /**
+     * Find the (entityType, entityId) of records deleted after one change sequence number up to another, in sequence order.
+     */
+    @Query("SELECT t.entityType, t.entityId FROM SyncTombstone t WHERE t.changeSeq > :after AND t.changeSeq <= :upTo"
+            + " ORDER BY t.changeSeq, t.id")
+    List<Object[]> findDeleted(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
+}
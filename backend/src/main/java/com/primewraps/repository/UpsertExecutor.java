@@ -0,0 +1,65 @@
+package com.primewraps.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs "add to the row, creating it if missing" writes for the JDBC repository fragments.
+ * An UPDATE followed by an INSERT when no row matched lets two transactions both insert the same new key,
+ * so the database's own upsert is used instead: INSERT ... ON CONFLICT DO UPDATE on PostgreSQL (production),
+ * which is atomic and batched, and MERGE on H2 (development and tests), which is retried row by row when a
+ * concurrent transaction inserts the same key first.
+ */
+@Component
+class UpsertExecutor {
+
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    /**
+     * Upsert rows with whichever of the two statements the connected database understands.
+     * Callers should pass rows in key order, so concurrent writers lock them in the same order.
+     * @param onConflictSql The PostgreSQL INSERT ... ON CONFLICT DO UPDATE statement.
+     * @param mergeSql The equivalent MERGE statement, with the same parameters.
+     */
+    void upsert(String onConflictSql, String mergeSql, List<Object[]> rows) {
+        if (isPostgreSql()) {
+            jdbcTemplate.batchUpdate(onConflictSql, rows);
+            return;
+        }
+        for (Object[] row : rows) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    jdbcTemplate.update(mergeSql, row);
+                    break;
+                } catch (DuplicateKeyException e) {
+                    // Another transaction inserted the key after MERGE looked for it; it now matches and is updated
+                    if (attempt == MAX_MERGE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    // Helper method to read the database product name once, on first use
+    private boolean isPostgreSql() {
+        Boolean result = postgreSql;
+        if (result == null) {
+            String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(productName);
+            postgreSql = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package com.primewraps.repository;
+
+import com.primewraps.model.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for UserBalance entity.
+ */
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long>, UserBalanceRepositoryCustom {
+
+    /**
+     * Read the balance of every user as (userId, balance) pairs in one query, without loading managed entities.
+     * Users without a ledger row have a zero balance.
+     */
+    @Query("SELECT u.id, COALESCE(b.balance, 0) FROM User u LEFT JOIN UserBalance b ON b.userId = u.id")
+    List<Object[]> findAllBalances();
+}
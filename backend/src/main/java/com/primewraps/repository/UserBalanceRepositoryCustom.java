@@ -0,0 +1,18 @@
+package com.primewraps.repository;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Set-based write operations for UserBalance that bypass per-entity saves.
+ */
+public interface UserBalanceRepositoryCustom {
+
+    /**
+     * Add deltas to users' balances with a single JDBC batch, creating the row of a user seen for the first time.
+     * Each row is one atomic upsert, so concurrent first writes for the same user add up instead of colliding on the key.
+     * @param deltasByUserId Non-zero balance deltas keyed by user ID.
+     * @return The number of balances written.
+     */
+    int upsertDeltas(Map<Long, BigDecimal> deltasByUserId);
+}
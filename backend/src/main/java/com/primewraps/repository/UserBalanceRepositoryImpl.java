@@ -0,0 +1,44 @@
+package com.primewraps.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC-backed implementation of {@link UserBalanceRepositoryCustom}.
+ */
+public class UserBalanceRepositoryImpl implements UserBalanceRepositoryCustom {
+
+    private static final String UPSERT_SQL = "INSERT INTO user_balances (user_id, balance, updated_at)"
+            + " VALUES (?, ?, ?)"
+            + " ON CONFLICT (user_id) DO UPDATE SET balance = user_balances.balance + EXCLUDED.balance,"
+            + " updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL = "MERGE INTO user_balances b"
+            + " USING (VALUES (CAST(? AS BIGINT), CAST(? AS NUMERIC(12, 2)), CAST(? AS TIMESTAMP))) v (user_id, balance, updated_at)"
+            + " ON b.user_id = v.user_id"
+            + " WHEN MATCHED THEN UPDATE SET balance = b.balance + v.balance, updated_at = v.updated_at"
+            + " WHEN NOT MATCHED THEN INSERT (user_id, balance, updated_at) VALUES (v.user_id, v.balance, v.updated_at)";
+
+    @Autowired
+    private UpsertExecutor upsertExecutor;
+
+    @Override
+    public int upsertDeltas(Map<Long, BigDecimal> deltasByUserId) {
+        if (deltasByUserId.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Rows are written in user ID order, so concurrent batches lock them in the same order and cannot deadlock
+        List<Object[]> rows = new ArrayList<>(deltasByUserId.size());
+        new TreeMap<>(deltasByUserId).forEach((userId, delta) -> rows.add(new Object[] { userId, delta, now }));
+        upsertExecutor.upsert(UPSERT_SQL, MERGE_SQL, rows);
+        return rows.size();
+    }
+}
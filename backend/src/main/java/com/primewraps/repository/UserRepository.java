@@ -2,6 +2,10 @@ package com.primewraps.repository;
 
 import com.primewraps.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,4 +19,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return An Optional containing the User if found, or empty if not found.
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Finds the IDs of all users without loading the entities (and their eagerly fetched roles).
+     * @return A list of all user IDs.
+     */
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    /**
+     * Finds which of the given user IDs exist, in a single query and without loading the entities.
+     * @param ids The user IDs to look up.
+     * @return The subset of the IDs that belong to existing users.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
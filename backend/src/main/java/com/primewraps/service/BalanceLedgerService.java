@@ -0,0 +1,210 @@
+package com.primewraps.service;
+
+import com.primewraps.model.*;
+import com.primewraps.repository.ExpenseRepository;
+import com.primewraps.repository.UserBalanceRepository;
+import com.primewraps.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Maintains the persisted per-user balance projection (user_balances).
+ * Instead of rebuilding balances from the full expense and payment history on every read,
+ * callers report the contribution of a record before and after a change and only the
+ * difference is applied.
+ */
+@Service
+@Transactional
+public class BalanceLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    // Order in which split users receive their share, matching the aggregate queries in ExpenseRepository
+    private static final Comparator<ExpenseSplit> SPLIT_ORDER = Comparator
+        .comparing((ExpenseSplit split) -> split.getUser().getId())
+        .thenComparing(ExpenseSplit::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private UserBalanceRepository userBalanceRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    /**
+     * Seed the ledger from history the first time the application starts with an empty table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeLedger() {
+        if (userBalanceRepository.count() == 0) {
+            logger.info("User balance ledger is empty, rebuilding from history...");
+            rebuild();
+        }
+    }
+
+    /**
+     * Get the balance contribution of an expense, keyed by user ID.
+     * Only shared PENDING or APPROVED expenses affect balances. The amount is split into whole-cent
+     * shares that add up exactly to the total: the payer takes the first share and split users
+     * follow in user ID order, with any leftover cents going to the earliest participants.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> contributionOf(Expense expense) {
+        return expense == null ? new HashMap<>() : contributionOf(expense, expense.getStatus());
+    }
+
+    /**
+     * Get the balance contribution an expense would have in the given status, keyed by user ID.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> contributionOf(Expense expense, ExpenseStatus status) {
+        if (expense == null || !expense.isSharedExpense() || expense.getPaidByUser() == null || !affectsBalances(status)) {
+            return new HashMap<>();
+        }
+
+        List<ExpenseSplit> splits = new ArrayList<>(expense.getSplitUsers());
+        splits.sort(SPLIT_ORDER);
+        List<Long> splitUserIds = new ArrayList<>(splits.size());
+        for (ExpenseSplit split : splits) {
+            splitUserIds.add(split.getUser().getId());
+        }
+        return allocate(expense.getAmount(), expense.getPaidByUser().getId(), splitUserIds, expense.getSplitCount());
+    }
+
+    /**
+     * Check whether shared expenses in a status count towards balances.
+     */
+    public static boolean affectsBalances(ExpenseStatus status) {
+        return status == ExpenseStatus.PENDING || status == ExpenseStatus.APPROVED;
+    }
+
+    /**
+     * Get the balance contribution a shared expense would have, keyed by user ID, without creating it.
+     * Shares are allocated exactly as for a saved expense whose split count is the number of split users plus the payer.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, BigDecimal> contributionOf(BigDecimal amount, Long payerId, Collection<Long> splitUserIds) {
+        List<Long> orderedSplitUserIds = new ArrayList<>(splitUserIds);
+        Collections.sort(orderedSplitUserIds);
+        return allocate(amount, payerId, orderedSplitUserIds, orderedSplitUserIds.size() + 1);
+    }
+
+    // Helper method to credit the payer and debit every participant's whole-cent share
+    private Map<Long, BigDecimal> allocate(BigDecimal amount, Long payerId, List<Long> orderedSplitUserIds, int splitCount) {
+        long amountCents = Money.toCents(amount);
+        Map<Long, Long> centsByUser = new HashMap<>();
+
+        // The payer is credited with the full amount
+        centsByUser.put(payerId, amountCents);
+
+        if (splitCount > 1) {
+            long[] shares = Money.allocate(amountCents, splitCount);
+
+            // The payer's own share and every split user's share are debited
+            centsByUser.merge(payerId, -shares[0], Long::sum);
+            for (int i = 0; i < orderedSplitUserIds.size() && i + 1 < shares.length; i++) {
+                centsByUser.merge(orderedSplitUserIds.get(i), -shares[i + 1], Long::sum);
+            }
+        }
+
+        Map<Long, BigDecimal> contribution = new HashMap<>();
+        centsByUser.forEach((userId, cents) -> contribution.put(userId, Money.toBigDecimal(cents)));
+        return contribution;
+    }
+
+    /**
+     * Get the balance contribution of a settlement, keyed by user ID.
+     * Only PAID settlements affect balances: the payer (fromUser) moves toward zero by
+     * the amount paid and the recipient (toUser) is no longer owed that amount.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> contributionOf(Settlement settlement) {
+        Map<Long, BigDecimal> contribution = new HashMap<>();
+        if (settlement == null || settlement.getStatus() != SettlementStatus.PAID
+                || settlement.getFromUser() == null || settlement.getToUser() == null
+                || settlement.getAmount() == null) {
+            return contribution;
+        }
+        contribution.merge(settlement.getFromUser().getId(), settlement.getAmount(), BigDecimal::add);
+        contribution.merge(settlement.getToUser().getId(), settlement.getAmount().negate(), BigDecimal::add);
+        return contribution;
+    }
+
+    /**
+     * Apply the difference between a record's contribution before and after a change.
+     * @return true if any balance changed.
+     */
+    public boolean applyChange(Map<Long, BigDecimal> before, Map<Long, BigDecimal> after) {
+        Map<Long, BigDecimal> deltas = new HashMap<>(after);
+        before.forEach((userId, amount) -> deltas.merge(userId, amount.negate(), BigDecimal::add));
+        return applyDeltas(deltas);
+    }
+
+    /**
+     * Apply a set of per-user deltas to the ledger, creating the rows of users seen for the first time.
+     * @return true if any balance changed.
+     */
+    public boolean applyDeltas(Map<Long, BigDecimal> deltas) {
+        Map<Long, BigDecimal> nonZero = new HashMap<>();
+        deltas.forEach((userId, delta) -> {
+            if (delta.signum() != 0) {
+                nonZero.put(userId, delta);
+            }
+        });
+        return userBalanceRepository.upsertDeltas(nonZero) > 0;
+    }
+
+    /**
+     * Get the current balance of every user. Users without a ledger row have a zero balance.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getBalances() {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Object[] row : userBalanceRepository.findAllBalances()) {
+            balances.put((Long) row[0], toBalance(row[1]));
+        }
+        return balances;
+    }
+
+    /**
+     * Compute every user's balance from shared expenses and paid settlements with a single aggregate query.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> aggregateBalances() {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Object[] row : expenseRepository.aggregateNetBalances()) {
+            balances.put(((Number) row[0]).longValue(), toBalance(row[1]));
+        }
+        return balances;
+    }
+
+    /**
+     * Rebuild the whole ledger from shared expenses and paid settlements.
+     * Used to seed the table and to reconcile it if it is ever suspected to have drifted.
+     */
+    public Map<Long, BigDecimal> rebuild() {
+        Map<Long, BigDecimal> balances = aggregateBalances();
+
+        userBalanceRepository.deleteAllInBatch();
+        List<UserBalance> rows = new ArrayList<>();
+        balances.forEach((userId, balance) -> rows.add(new UserBalance(userId, balance)));
+        userBalanceRepository.saveAll(rows);
+
+        logger.info("Rebuilt user balance ledger with {} rows", rows.size());
+        return balances;
+    }
+
+    private BigDecimal toBalance(Object value) {
+        BigDecimal balance = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        return balance.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,88 @@
+package com.primewraps.service;
+
+import com.primewraps.dto.ChangeFeed;
+import com.primewraps.dto.ExpenseDTO;
+import com.primewraps.model.Job;
+import com.primewraps.model.Settlement;
+import com.primewraps.model.SyncEntityType;
+import com.primewraps.repository.JobRepository;
+import com.primewraps.repository.SettlementRepository;
+import com.primewraps.repository.SyncTombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the sync change feed: the expenses, jobs and settlements written since a client's last sync,
+ * plus the IDs of those deleted since then, so clients can refresh without downloading whole lists.
+ * Every write stamps its row with a number from {@link ChangeSequence}; deletes leave a {@link com.primewraps.model.SyncTombstone}.
+ */
+@Service
+public class ChangeFeedService {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Value("${sync.max-changes:1000}")
+    private int maxChanges;
+
+    /**
+     * Get the changes after the given sequence number.
+     * Changes are read up to the watermark below any transaction still in progress, which becomes the
+     * client's next sequence number. If there are more changes of one kind than a response holds, or the
+     * client's number is ahead of the server's, nothing is returned and the client must reload its lists.
+     * @param since The nextSince of the client's previous sync, or 0 for the first sync.
+     * @throws IllegalArgumentException If since is negative.
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeed getChanges(long since) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since cannot be negative");
+        }
+        long upTo = changeSequence.watermark();
+        if (since > upTo) {
+            return ChangeFeed.fullResync(since, upTo);
+        }
+
+        // One extra row tells whether a kind of record has more changes than fit in a response
+        Limit limit = Limit.of(maxChanges + 1);
+        List<ExpenseDTO> expenses = expenseService.getChangedExpenses(since, upTo, maxChanges + 1);
+        List<Job> jobs = jobRepository.findChanged(since, upTo, limit);
+        List<Settlement> settlements = settlementRepository.findChanged(since, upTo, limit);
+        List<Object[]> deleted = syncTombstoneRepository.findDeleted(since, upTo, limit);
+        if (expenses.size() > maxChanges || jobs.size() > maxChanges
+                || settlements.size() > maxChanges || deleted.size() > maxChanges) {
+            return ChangeFeed.fullResync(since, upTo);
+        }
+
+        List<Long> deletedExpenseIds = new ArrayList<>();
+        List<Long> deletedJobIds = new ArrayList<>();
+        List<Long> deletedSettlementIds = new ArrayList<>();
+        for (Object[] row : deleted) {
+            switch ((SyncEntityType) row[0]) {
+                case EXPENSE -> deletedExpenseIds.add((Long) row[1]);
+                case JOB -> deletedJobIds.add((Long) row[1]);
+                case SETTLEMENT -> deletedSettlementIds.add((Long) row[1]);
+            }
+        }
+        return new ChangeFeed(since, upTo, false, expenses, jobs, settlements,
+                deletedExpenseIds, deletedJobIds, deletedSettlementIds);
+    }
+}
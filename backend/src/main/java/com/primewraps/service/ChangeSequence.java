@@ -0,0 +1,100 @@
+package com.primewraps.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * Hands out the monotonically increasing sequence numbers that order the sync change feed.
+ * A number is allocated when a row is written but only becomes visible when its transaction commits,
+ * and transactions do not commit in allocation order. Each transaction's first number is therefore
+ * tracked until it completes, and the feed is only read up to the watermark below the oldest open
+ * transaction, so a client never moves past a change that has yet to commit.
+ * The counter lives in memory and is seeded from the highest number stored, which assumes a single
+ * application instance, as the other in-memory coordination in this application does.
+ */
+@Component
+public class ChangeSequence {
+
+    private static final String[] SEQUENCED_TABLES = { "expenses", "jobs", "settlements", "sync_tombstones" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Guarded by this
+    private long last = -1;
+    private final TreeSet<Long> openTransactions = new TreeSet<>();
+
+    /**
+     * Allocate the next sequence number for a write in the current transaction.
+     */
+    public synchronized long next() {
+        seed();
+        long changeSeq = ++last;
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !isTracked()) {
+            // Later numbers of the same transaction are above its first, so only the first is tracked
+            openTransactions.add(changeSeq);
+            TransactionSynchronizationManager.registerSynchronization(new OpenTransaction(changeSeq));
+        }
+        return changeSeq;
+    }
+
+    /**
+     * Get the highest sequence number below which every change has either committed or rolled back.
+     */
+    public synchronized long watermark() {
+        seed();
+        return openTransactions.isEmpty() ? last : openTransactions.first() - 1;
+    }
+
+    // Helper method to load the highest stored number on first use, once the schema exists
+    private void seed() {
+        if (last >= 0) {
+            return;
+        }
+        long max = 0;
+        for (String table : SEQUENCED_TABLES) {
+            Long tableMax = jdbcTemplate.queryForObject("SELECT MAX(change_seq) FROM " + table, Long.class);
+            if (tableMax != null) {
+                max = Math.max(max, tableMax);
+            }
+        }
+        last = max;
+    }
+
+    // Helper method to check whether the current transaction already holds a number
+    private boolean isTracked() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof OpenTransaction && ((OpenTransaction) synchronization).owner() == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void release(long firstChangeSeq) {
+        openTransactions.remove(firstChangeSeq);
+    }
+
+    // Releases a transaction's first number once it has committed or rolled back
+    private class OpenTransaction implements TransactionSynchronization {
+        private final long firstChangeSeq;
+
+        OpenTransaction(long firstChangeSeq) {
+            this.firstChangeSeq = firstChangeSeq;
+        }
+
+        ChangeSequence owner() {
+            return ChangeSequence.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            release(firstChangeSeq);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.primewraps.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.event.FinancialDataChangedEvent;
+import com.primewraps.event.JobCostsChangedEvent;
+import com.primewraps.event.LiveUpdateEvent;
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseCategory;
+import com.primewraps.model.ExpenseSplit;
+import com.primewraps.model.Job;
+import com.primewraps.model.User;
+import com.primewraps.repository.ExpenseRepository;
+import com.primewraps.repository.JobRepository;
+import com.primewraps.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports expenses in bulk from a CSV or NDJSON stream.
+ * Rows are parsed one at a time, validated with the same rules as a single expense, and written with
+ * JDBC batches. The balance ledger is updated once with the combined contribution of every imported row
+ * and a single change event is published, so settlements are recomputed once per import rather than per row.
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final ZoneId PACIFIC = ZoneId.of("America/Los_Angeles");
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("100000000");
+
+    // Columns a CSV upload may contain; description, amount, category and paidByUserId are required
+    private static final Set<String> CSV_COLUMNS = Set.of("description", "amount", "category", "date", "notes",
+            "taxdeductible", "recurring", "recurringfrequency", "paidbyuserid", "sharedexpense", "splituserids", "jobid");
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Import expenses from a stream. Valid rows are imported and invalid rows are reported, with their line number.
+     * @param input The upload, UTF-8 encoded.
+     * @param format "csv" (with a header row) or "ndjson" (one ExpenseRequest JSON object per line);
+     *               if null, it is taken from the file name extension.
+     * @param filename The uploaded file name, may be null.
+     * @throws IllegalArgumentException If the format is unknown or the CSV header is invalid.
+     */
+    @Transactional
+    public ImportResult importExpenses(InputStream input, String format, String filename) throws IOException {
+        long start = System.nanoTime();
+        boolean csv = isCsv(format, filename);
+
+        // Users and jobs are resolved from maps built once up front; references are proxies and cost no query
+        Map<Long, User> usersById = new HashMap<>();
+        for (Long userId : userRepository.findAllIds()) {
+            usersById.put(userId, userRepository.getReferenceById(userId));
+        }
+        Map<Long, Job> jobsById = new HashMap<>();
+        for (Long jobId : jobRepository.findAllIds()) {
+            jobsById.put(jobId, jobRepository.getReferenceById(jobId));
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User createdBy = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new IllegalArgumentException("Current user not found: " + authentication.getName()));
+
+        ImportBatch batch = new ImportBatch(usersById);
+        List<RowError> errors = new ArrayList<>();
+        int totalRows = 0;
+        int importedRows = 0;
+        int failedRows = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            if (csv) {
+                String headerLine = reader.readLine();
+                if (headerLine == null) {
+                    throw new IllegalArgumentException("CSV upload is empty");
+                }
+                header = parseCsvHeader(headerLine);
+            }
+
+            String line;
+            int lineNumber = csv ? 1 : 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                totalRows++;
+                try {
+                    ExpenseRequest request = csv ? parseCsvRow(header, line) : objectMapper.readValue(line, ExpenseRequest.class);
+                    batch.add(toExpense(request, usersById, jobsById, createdBy), request.getSplitUserIds());
+                    importedRows++;
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    failedRows++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        String message = e instanceof JsonProcessingException
+                                ? "Invalid JSON: " + ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+                        errors.add(new RowError(lineNumber, message));
+                    }
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    batch.flush();
+                }
+            }
+        }
+        batch.flush();
+
+        boolean balancesChanged = balanceLedgerService.applyDeltas(batch.ledgerDeltas);
+        expenseRollupService.applyDeltas(batch.rollupDeltas);
+        if (importedRows > 0) {
+            eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, batch.jobIds));
+            eventPublisher.publishEvent(new JobCostsChangedEvent(batch.jobCostDeltas));
+            eventPublisher.publishEvent(LiveUpdateEvent.expensesCreated(importedRows, batch.jobIds));
+        }
+
+        long durationMs = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        logger.info("Imported {} of {} expense rows in {} ms ({} failed)", importedRows, totalRows, durationMs, failedRows);
+        return new ImportResult(totalRows, importedRows, failedRows, errors, durationMs,
+                Math.round(totalRows * 1000.0 / durationMs));
+    }
+
+    // Helper method to choose the parser from the format, or else the file extension; defaults to CSV
+    private boolean isCsv(String format, String filename) {
+        if ((format == null || format.isBlank()) && filename != null) {
+            String lowerName = filename.toLowerCase(Locale.ROOT);
+            format = lowerName.endsWith(".ndjson") || lowerName.endsWith(".jsonl") ? "ndjson" : "csv";
+        }
+        if (format == null || format.isBlank() || format.equalsIgnoreCase("csv")) {
+            return true;
+        }
+        if (format.equalsIgnoreCase("ndjson") || format.equalsIgnoreCase("jsonl")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + format + " (expected csv or ndjson)");
+    }
+
+    // Helper method to validate a row and build the expense it describes, resolving users and jobs from the preloaded maps
+    private Expense toExpense(ExpenseRequest request, Map<Long, User> usersById, Map<Long, Job> jobsById, User createdBy) {
+        ExpenseService.validateExpenseRequest(request);
+        if (request.getCategory() == null) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        ExpenseCategory category;
+        try {
+            category = ExpenseCategory.valueOf(request.getCategory().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category: " + request.getCategory());
+        }
+        User paidBy = usersById.get(request.getPaidByUserId());
+        if (paidBy == null) {
+            throw new IllegalArgumentException("User not found with ID: " + request.getPaidByUserId());
+        }
+        List<Long> splitUserIds = request.isSharedExpense() ? request.getSplitUserIds() : Collections.emptyList();
+        for (Long splitUserId : splitUserIds) {
+            if (!usersById.containsKey(splitUserId)) {
+                throw new IllegalArgumentException("User not found with ID: " + splitUserId);
+            }
+        }
+        Job job = null;
+        if (request.getJobId() != null) {
+            job = jobsById.get(request.getJobId());
+            if (job == null) {
+                throw new IllegalArgumentException("Job not found with ID: " + request.getJobId());
+            }
+        }
+        // A value the columns cannot hold would fail the whole JDBC batch, so it is rejected with its row instead
+        if (request.getAmount().compareTo(MAX_AMOUNT) >= 0) {
+            throw new IllegalArgumentException("Amount must be less than " + MAX_AMOUNT.toPlainString());
+        }
+        requireMaxLength("Description", request.getDescription());
+        requireMaxLength("Notes", request.getNotes());
+        requireMaxLength("Recurring frequency", request.getRecurringFrequency());
+
+        Expense expense = new Expense();
+        expense.setDescription(request.getDescription());
+        expense.setAmount(request.getAmount());
+        expense.setCategory(category);
+        if (request.getDate() != null) {
+            expense.setDate(request.getDate());
+        } else {
+            expense.setDate(ZonedDateTime.now(PACIFIC).toLocalDateTime());
+        }
+        expense.setNotes(request.getNotes());
+        expense.setTaxDeductible(request.isTaxDeductible());
+        expense.setRecurring(request.isRecurring());
+        expense.setRecurringFrequency(request.getRecurringFrequency());
+        expense.setNextDueDate(ExpenseService.nextDueDateOf(expense, null));
+        expense.setSharedExpense(request.isSharedExpense());
+        expense.setSplitCount(splitUserIds.size() + 1);
+        expense.setPaidByUser(paidBy);
+        expense.setCreatedBy(createdBy);
+        expense.setJob(job);
+        return expense;
+    }
+
+    // Helper method to check a value fits a default-length string column
+    private void requireMaxLength(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " cannot be longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    // Helper method to map header names to column positions
+    private List<String> parseCsvHeader(String headerLine) {
+        List<String> header = new ArrayList<>();
+        for (String column : parseCsvLine(stripByteOrderMark(headerLine))) {
+            String name = column.trim().toLowerCase(Locale.ROOT).replace("_", "");
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+            header.add(name);
+        }
+        for (String required : List.of("description", "amount", "category", "paidbyuserid")) {
+            if (!header.contains(required)) {
+                throw new IllegalArgumentException("CSV header is missing the " + required + " column");
+            }
+        }
+        return header;
+    }
+
+    // Helper method to turn one CSV record into a request; split user IDs are separated by semicolons
+    private ExpenseRequest parseCsvRow(List<String> header, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Row has " + values.size() + " fields but the header has " + header.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                row.put(header.get(i), value);
+            }
+        }
+
+        ExpenseRequest request = new ExpenseRequest();
+        request.setDescription(row.get("description"));
+        request.setCategory(row.get("category"));
+        request.setNotes(row.get("notes"));
+        request.setRecurringFrequency(row.get("recurringfrequency"));
+        request.setTaxDeductible(Boolean.parseBoolean(row.get("taxdeductible")));
+        request.setRecurring(Boolean.parseBoolean(row.get("recurring")));
+        try {
+            if (row.containsKey("amount")) {
+                request.setAmount(new BigDecimal(row.get("amount")));
+            }
+            if (row.containsKey("paidbyuserid")) {
+                request.setPaidByUserId(Long.valueOf(row.get("paidbyuserid")));
+            }
+            if (row.containsKey("jobid")) {
+                request.setJobId(Long.valueOf(row.get("jobid")));
+            }
+            List<Long> splitUserIds = new ArrayList<>();
+            if (row.containsKey("splituserids")) {
+                for (String id : row.get("splituserids").split(";")) {
+                    if (!id.isBlank()) {
+                        splitUserIds.add(Long.valueOf(id.trim()));
+                    }
+                }
+            }
+            request.setSplitUserIds(splitUserIds);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+        // Without an explicit sharedExpense column, a row with split users is shared
+        request.setSharedExpense(row.containsKey("sharedexpense")
+                ? Boolean.parseBoolean(row.get("sharedexpense")) : !request.getSplitUserIds().isEmpty());
+        if (row.containsKey("date")) {
+            request.setDate(parseCsvDate(row.get("date")));
+        }
+        return request;
+    }
+
+    // Helper method to read an ISO date or date-time given in Pacific time and convert it to UTC like the expense form does
+    private LocalDateTime parseCsvDate(String value) {
+        LocalDateTime pacific;
+        try {
+            pacific = value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value + " (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm[:ss])");
+        }
+        return pacific.atZone(PACIFIC).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    // Helper method to split a CSV line into fields, honouring double quotes and "" escapes
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripByteOrderMark(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    // Buffer of validated rows that is written with one expense batch and one split batch per flush
+    private class ImportBatch {
+        private final Map<Long, User> usersById;
+        private final List<Expense> expenses = new ArrayList<>();
+        private final List<List<Long>> splitUserIds = new ArrayList<>();
+        private final Map<Long, BigDecimal> ledgerDeltas = new HashMap<>();
+        private final Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> rollupDeltas = new HashMap<>();
+        private final Map<Long, BigDecimal> jobCostDeltas = new HashMap<>();
+        // Jobs the imported expenses belong to; null stands for expenses without a job
+        private final Set<Long> jobIds = new HashSet<>();
+
+        ImportBatch(Map<Long, User> usersById) {
+            this.usersById = usersById;
+        }
+
+        void add(Expense expense, List<Long> expenseSplitUserIds) {
+            expenses.add(expense);
+            splitUserIds.add(expense.isSharedExpense() ? expenseSplitUserIds : Collections.emptyList());
+        }
+
+        int size() {
+            return expenses.size();
+        }
+
+        void flush() {
+            if (expenses.isEmpty()) {
+                return;
+            }
+            expenseRepository.batchInsert(expenses);
+
+            List<ExpenseSplit> splits = new ArrayList<>();
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                for (Long userId : splitUserIds.get(i)) {
+                    splits.add(new ExpenseSplit(expense, usersById.get(userId)));
+                }
+                expenseRollupService.contributionOf(expense)
+                        .forEach((key, delta) -> rollupDeltas.merge(key, delta, ExpenseRollupService.RollupDelta::plus));
+                JobService.costContributionOf(expense)
+                        .forEach((jobId, delta) -> jobCostDeltas.merge(jobId, delta, BigDecimal::add));
+                jobIds.add(expense.getJob() != null ? expense.getJob().getId() : null);
+                if (expense.isSharedExpense()) {
+                    balanceLedgerService.contributionOf(expense.getAmount(), expense.getPaidByUser().getId(), splitUserIds.get(i))
+                            .forEach((userId, delta) -> ledgerDeltas.merge(userId, delta, BigDecimal::add));
+                }
+            }
+            expenseRepository.batchInsertSplits(splits);
+
+            expenses.clear();
+            splitUserIds.clear();
+        }
+    }
+
+    // Inner class for import results
+    public static class ImportResult {
+        private int totalRows;
+        private int importedRows;
+        private int failedRows;
+        private List<RowError> errors;
+        private long durationMs;
+        private long rowsPerSecond;
+
+        public ImportResult(int totalRows, int importedRows, int failedRows, List<RowError> errors,
+                            long durationMs, long rowsPerSecond) {
+            this.totalRows = totalRows;
+            this.importedRows = importedRows;
+            this.failedRows = failedRows;
+            this.errors = errors;
+            this.durationMs = durationMs;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        // Getters
+        public int getTotalRows() { return totalRows; }
+        public int getImportedRows() { return importedRows; }
+        public int getFailedRows() { return failedRows; }
+        public List<RowError> getErrors() { return errors; }
+        public long getDurationMs() { return durationMs; }
+        public long getRowsPerSecond() { return rowsPerSecond; }
+    }
+
+    // Inner class for a rejected row; only the first 1000 are reported
+    public static class RowError {
+        private int line;
+        private String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        // Getters
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
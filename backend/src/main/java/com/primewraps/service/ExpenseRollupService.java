@@ -0,0 +1,334 @@
+package com.primewraps.service;
+
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseCategory;
+import com.primewraps.model.ExpenseDailyRollup;
+import com.primewraps.model.ExpenseStatus;
+import com.primewraps.repository.ExpenseDailyRollupRepository;
+import com.primewraps.repository.ExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Maintains the daily expense rollups (expense_daily_rollups) and answers spend reports from them.
+ * Like the balance ledger, callers report the contribution of an expense before and after a change
+ * and only the difference is applied, in the same transaction as the change itself.
+ */
+@Service
+@Transactional
+public class ExpenseRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    // Statuses included in spend reports unless the caller asks for others; rejected expenses were never spent
+    private static final List<ExpenseStatus> DEFAULT_REPORT_STATUSES =
+        Arrays.asList(ExpenseStatus.PENDING, ExpenseStatus.APPROVED, ExpenseStatus.REIMBURSED);
+
+    @Autowired
+    private ExpenseDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    /**
+     * Seed the rollups from history the first time the application starts with an empty table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeRollups() {
+        if (rollupRepository.count() == 0 && expenseRepository.count() > 0) {
+            logger.info("Expense rollups are empty, rebuilding from history...");
+            rebuild();
+        }
+    }
+
+    /**
+     * Get the rollup contribution of an expense: its amount and a count of one under its day, category,
+     * status, payer and job. The returned map is a snapshot, so it can be taken before the expense is modified.
+     */
+    @Transactional(readOnly = true)
+    public Map<RollupKey, RollupDelta> contributionOf(Expense expense) {
+        Map<RollupKey, RollupDelta> contribution = new HashMap<>();
+        if (expense == null || expense.getDate() == null || expense.getAmount() == null || expense.getPaidByUser() == null) {
+            return contribution;
+        }
+        RollupKey key = new RollupKey(expense.getDate().toLocalDate(), expense.getCategory(), expense.getStatus(),
+            expense.getPaidByUser().getId(), expense.getJob() != null ? expense.getJob().getId() : ExpenseDailyRollup.NO_JOB);
+        contribution.put(key, new RollupDelta(expense.getAmount(), 1));
+        return contribution;
+    }
+
+    /**
+     * Apply the difference between an expense's contribution before and after a change.
+     * An update that keeps the same key only adjusts the amount; a move to another day, category,
+     * status, payer or job takes the expense out of one row and adds it to another.
+     */
+    public void applyChange(Map<RollupKey, RollupDelta> before, Map<RollupKey, RollupDelta> after) {
+        Map<RollupKey, RollupDelta> deltas = new HashMap<>(after);
+        before.forEach((key, delta) -> deltas.merge(key, delta.negate(), RollupDelta::plus));
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Apply a set of rollup deltas, creating rows for keys seen for the first time.
+     */
+    public void applyDeltas(Map<RollupKey, RollupDelta> deltas) {
+        List<ExpenseDailyRollup> rows = new ArrayList<>();
+        for (Map.Entry<RollupKey, RollupDelta> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            RollupDelta delta = entry.getValue();
+            if (!delta.isZero()) {
+                rows.add(new ExpenseDailyRollup(key.getDay(), key.getCategory(), key.getStatus(),
+                    key.getPaidByUserId(), key.getJobId(), delta.getAmount(), delta.getCount()));
+            }
+        }
+        rollupRepository.upsertDeltas(rows);
+    }
+
+    /**
+     * Rebuild all rollups from the expense table with one aggregate query.
+     * Used to seed the table and to reconcile it if it is ever suspected to have drifted.
+     */
+    public int rebuild() {
+        List<ExpenseDailyRollup> rows = new ArrayList<>();
+        for (Object[] row : expenseRepository.aggregateDailyRollups()) {
+            rows.add(new ExpenseDailyRollup((LocalDate) row[0], (ExpenseCategory) row[1], (ExpenseStatus) row[2],
+                ((Number) row[3]).longValue(), ((Number) row[4]).longValue(), (BigDecimal) row[5], ((Number) row[6]).longValue()));
+        }
+
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(rows);
+
+        logger.info("Rebuilt expense rollups with {} rows", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Get spend per calendar month, grouped by category or by payer.
+     * @param groupBy "category" or "user".
+     * @param from First day to include, or null for no lower bound.
+     * @param to Last day to include, or null for no upper bound.
+     * @param statuses Expense statuses to include; null or empty means every status except REJECTED.
+     * @throws IllegalArgumentException If groupBy is not recognised.
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodTotal> getMonthlySpend(String groupBy, LocalDate from, LocalDate to, Collection<ExpenseStatus> statuses) {
+        return summarize(groupBy, from, to, statuses, false);
+    }
+
+    /**
+     * Get spend per calendar quarter, grouped by category or by payer.
+     * Quarters are folded from the monthly totals, so both reports always agree.
+     * @see #getMonthlySpend(String, LocalDate, LocalDate, Collection)
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodTotal> getQuarterlySpend(String groupBy, LocalDate from, LocalDate to, Collection<ExpenseStatus> statuses) {
+        return summarize(groupBy, from, to, statuses, true);
+    }
+
+    /**
+     * Get the total paid by a user between two instants (inclusive), across all statuses.
+     * Whole days are read from the rollups; only the partial days at either end touch the expense table.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalByUser(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumRange(startDate, endDate,
+            (fromDay, toDay) -> rollupRepository.sumByPayerBetweenDays(userId, fromDay, toDay),
+            (start, end) -> expenseRepository.calculateTotalExpensesByUserInHalfOpenRange(userId, start, end),
+            (start, end) -> expenseRepository.calculateTotalExpensesByUserInDateRange(userId, start, end));
+    }
+
+    /**
+     * Get the total spent in a category between two instants (inclusive), across all statuses.
+     * Whole days are read from the rollups; only the partial days at either end touch the expense table.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalByCategory(ExpenseCategory category, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumRange(startDate, endDate,
+            (fromDay, toDay) -> rollupRepository.sumByCategoryBetweenDays(category, fromDay, toDay),
+            (start, end) -> expenseRepository.calculateTotalExpensesByCategoryInHalfOpenRange(category, start, end),
+            (start, end) -> expenseRepository.calculateTotalExpensesByCategoryInDateRange(category, start, end));
+    }
+
+    // Helper method to split [startDate, endDate] into whole days served by the rollups and partial days served by expenses
+    private BigDecimal sumRange(LocalDateTime startDate, LocalDateTime endDate,
+                                BiFunction<LocalDate, LocalDate, BigDecimal> wholeDays,
+                                BiFunction<LocalDateTime, LocalDateTime, BigDecimal> halfOpenRange,
+                                BiFunction<LocalDateTime, LocalDateTime, BigDecimal> closedRange) {
+        LocalDate firstWholeDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? startDate.toLocalDate() : startDate.toLocalDate().plusDays(1);
+        LocalDate lastDay = endDate.toLocalDate();
+        if (!firstWholeDay.isBefore(lastDay)) {
+            return orZero(closedRange.apply(startDate, endDate));
+        }
+
+        BigDecimal total = orZero(wholeDays.apply(firstWholeDay, lastDay));
+        if (startDate.isBefore(firstWholeDay.atStartOfDay())) {
+            total = total.add(orZero(halfOpenRange.apply(startDate, firstWholeDay.atStartOfDay())));
+        }
+        return total.add(orZero(closedRange.apply(lastDay.atStartOfDay(), endDate)));
+    }
+
+    // Helper method to read monthly totals and optionally fold them into quarters
+    private List<PeriodTotal> summarize(String groupBy, LocalDate from, LocalDate to, Collection<ExpenseStatus> statuses,
+                                        boolean quarterly) {
+        boolean byUser = parseGroupBy(groupBy);
+        Collection<ExpenseStatus> included = statuses == null || statuses.isEmpty() ? DEFAULT_REPORT_STATUSES : statuses;
+        LocalDate toExclusive = to != null ? to.plusDays(1) : null;
+
+        List<Object[]> rows = byUser
+            ? rollupRepository.sumByMonthAndPayer(from, toExclusive, included)
+            : rollupRepository.sumByMonthAndCategory(from, toExclusive, included);
+
+        Map<String, PeriodTotal> totals = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            int year = ((Number) row[0]).intValue();
+            int month = ((Number) row[1]).intValue();
+            String period = quarterly
+                ? String.format("%d-Q%d", year, (month - 1) / 3 + 1)
+                : String.format("%d-%02d", year, month);
+
+            PeriodTotal total;
+            if (byUser) {
+                Long userId = ((Number) row[2]).longValue();
+                total = totals.computeIfAbsent(period + "|" + userId,
+                    key -> new PeriodTotal(period, null, userId, (String) row[3]));
+                total.add((BigDecimal) row[4], ((Number) row[5]).longValue());
+            } else {
+                ExpenseCategory category = (ExpenseCategory) row[2];
+                total = totals.computeIfAbsent(period + "|" + category,
+                    key -> new PeriodTotal(period, category.name(), null, null));
+                total.add((BigDecimal) row[3], ((Number) row[4]).longValue());
+            }
+        }
+
+        // Rows emptied by deletes and moves stay in the table with a zero count; leave them out of reports
+        List<PeriodTotal> result = new ArrayList<>(totals.values());
+        result.removeIf(total -> total.getExpenseCount() == 0);
+        result.sort(Comparator.comparing(PeriodTotal::getPeriod)
+            .thenComparing(PeriodTotal::getCategory, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(PeriodTotal::getUserId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    // Helper method to parse the report grouping; returns true when grouping by payer
+    private boolean parseGroupBy(String groupBy) {
+        if (groupBy == null || groupBy.equalsIgnoreCase("category")) {
+            return false;
+        }
+        if (groupBy.equalsIgnoreCase("user")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unsupported groupBy: " + groupBy + " (expected category or user)");
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // Inner class identifying one rollup row
+    public static class RollupKey {
+        private final LocalDate day;
+        private final ExpenseCategory category;
+        private final ExpenseStatus status;
+        private final Long paidByUserId;
+        private final Long jobId;
+
+        public RollupKey(LocalDate day, ExpenseCategory category, ExpenseStatus status, Long paidByUserId, Long jobId) {
+            this.day = day;
+            this.category = category;
+            this.status = status;
+            this.paidByUserId = paidByUserId;
+            this.jobId = jobId;
+        }
+
+        // Getters
+        public LocalDate getDay() { return day; }
+        public ExpenseCategory getCategory() { return category; }
+        public ExpenseStatus getStatus() { return status; }
+        public Long getPaidByUserId() { return paidByUserId; }
+        public Long getJobId() { return jobId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RollupKey)) return false;
+            RollupKey other = (RollupKey) o;
+            return Objects.equals(day, other.day) && category == other.category && status == other.status
+                && Objects.equals(paidByUserId, other.paidByUserId) && Objects.equals(jobId, other.jobId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, category, status, paidByUserId, jobId);
+        }
+    }
+
+    // Inner class for the amount and expense count added to a rollup row
+    public static class RollupDelta {
+        private final BigDecimal amount;
+        private final long count;
+
+        public RollupDelta(BigDecimal amount, long count) {
+            this.amount = amount;
+            this.count = count;
+        }
+
+        public RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(amount.add(other.amount), count + other.count);
+        }
+
+        public RollupDelta negate() {
+            return new RollupDelta(amount.negate(), -count);
+        }
+
+        public boolean isZero() {
+            return amount.signum() == 0 && count == 0;
+        }
+
+        // Getters
+        public BigDecimal getAmount() { return amount; }
+        public long getCount() { return count; }
+    }
+
+    // Inner class for one row of a spend report; category or user fields are set depending on the grouping
+    public static class PeriodTotal {
+        private String period;
+        private String category;
+        private Long userId;
+        private String username;
+        private BigDecimal total = BigDecimal.ZERO;
+        private long expenseCount;
+
+        public PeriodTotal(String period, String category, Long userId, String username) {
+            this.period = period;
+            this.category = category;
+            this.userId = userId;
+            this.username = username;
+        }
+
+        void add(BigDecimal amount, long count) {
+            this.total = this.total.add(amount);
+            this.expenseCount += count;
+        }
+
+        // Getters
+        public String getPeriod() { return period; }
+        public String getCategory() { return category; }
+        public Long getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public BigDecimal getTotal() { return total; }
+        public long getExpenseCount() { return expenseCount; }
+    }
+}
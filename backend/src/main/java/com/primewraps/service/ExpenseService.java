@@ -1,25 +1,52 @@
 package com.primewraps.service;
 
+import com.primewraps.dto.BulkStatusUpdateRequest;
 import com.primewraps.dto.ExpenseDTO;
+import com.primewraps.dto.ExpensePage;
 import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.dto.ExpenseSearchRequest;
 import com.primewraps.dto.ExpenseSplitDTO;
 import com.primewraps.dto.UserDTO;
+import com.primewraps.event.FinancialDataChangedEvent;
+import com.primewraps.event.JobCostsChangedEvent;
+import com.primewraps.event.LiveUpdateEvent;
 import com.primewraps.model.*;
 import com.primewraps.repository.ExpenseRepository;
-
+import com.primewraps.repository.ExpenseSpecifications;
+import com.primewraps.repository.JobRepository;
 import com.primewraps.repository.UserRepository;
+import com.primewraps.util.Recurrence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -31,6 +58,12 @@ import java.util.stream.Collectors;
 @Transactional
 public class ExpenseService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_SIZE = 1000;
+    private static final String CURSOR_SEPARATOR = ";";
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
@@ -38,40 +71,28 @@ public class ExpenseService {
     private UserRepository userRepository;
 
     @Autowired
-    private SettlementService settlementService;
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ChangeSequence changeSequence;
 
     /**
      * Create a new expense.
      */
     public ExpenseDTO createExpense(ExpenseRequest request) {
-        System.out.println("Creating expense with request: isSharedExpense=" + request.isSharedExpense() + 
-                          ", splitUserIds=" + request.getSplitUserIds());
-        
-        // Validate input
-        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be greater than zero");
-        }
-        if (request.getDescription() == null || request.getDescription().trim().isEmpty()) {
-            throw new IllegalArgumentException("Description cannot be empty");
-        }
-        if (request.getPaidByUserId() == null) {
-            throw new IllegalArgumentException("Paid by user ID is required");
-        }
-        
-        // Validate shared expense logic
-        if (request.isSharedExpense()) {
-            if (request.getSplitUserIds() == null || request.getSplitUserIds().isEmpty()) {
-                throw new IllegalArgumentException("Split user IDs are required for shared expenses");
-            }
-            if (request.getSplitUserIds().contains(request.getPaidByUserId())) {
-                throw new IllegalArgumentException("Payer cannot be included in split users");
-            }
-            // Check for duplicate split users
-            if (request.getSplitUserIds().size() != request.getSplitUserIds().stream().distinct().count()) {
-                throw new IllegalArgumentException("Duplicate split users are not allowed");
-            }
-        }
+        logger.debug("Creating expense: isSharedExpense={}, splitUserIds={}", request.isSharedExpense(), request.getSplitUserIds());
         
+        validateExpenseRequest(request);
+
         Expense expense = new Expense();
         expense.setDescription(request.getDescription());
         expense.setAmount(request.getAmount());
@@ -89,9 +110,8 @@ public class ExpenseService {
         expense.setTaxDeductible(request.isTaxDeductible());
         expense.setRecurring(request.isRecurring());
         expense.setRecurringFrequency(request.getRecurringFrequency());
+        expense.setNextDueDate(nextDueDateOf(expense, null));
         expense.setSharedExpense(request.isSharedExpense());
-        
-        System.out.println("Set expense.isSharedExpense to: " + expense.isSharedExpense());
 
         int splitCount = 1;
         if (request.isSharedExpense() && request.getSplitUserIds() != null) {
@@ -109,6 +129,9 @@ public class ExpenseService {
             }
         }
 
+        // Set the job the expense is charged to
+        expense.setJob(findJob(request.getJobId()));
+
         // Set the user who created the expense
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
@@ -120,8 +143,6 @@ public class ExpenseService {
         }
 
         Expense savedExpense = expenseRepository.save(expense);
-        System.out.println("Saved expense with ID=" + savedExpense.getId() + 
-                          ", isSharedExpense=" + savedExpense.isSharedExpense());
 
         if (request.isSharedExpense() && request.getSplitUserIds() != null) {
             Set<ExpenseSplit> splitUsers = new HashSet<>();
@@ -134,30 +155,73 @@ public class ExpenseService {
                 }
             }
             savedExpense.setSplitUsers(splitUsers);
-            savedExpense = expenseRepository.save(savedExpense);
-            
-            System.out.println("Created shared expense: ID=" + savedExpense.getId() + 
-                             ", Description=" + savedExpense.getDescription() + 
-                             ", Amount=" + savedExpense.getAmount() + 
-                             ", Status=" + savedExpense.getStatus() + 
-                             ", IsShared=" + savedExpense.isSharedExpense() + 
-                             ", SplitCount=" + savedExpense.getSplitCount() + 
-                             ", SplitUsers=" + savedExpense.getSplitUsers().size());
+            savedExpense = expenseRepository.saveAndFlush(savedExpense);
+            logger.debug("Created shared expense {}: amount={}, splitCount={}, splitUsers={}",
+                    savedExpense.getId(), savedExpense.getAmount(), savedExpense.getSplitCount(), savedExpense.getSplitUsers().size());
         }
 
-        // Update settlements if it's a shared expense (regardless of status)
-        if (savedExpense.isSharedExpense()) {
-            settlementService.updateAndPersistSettlements();
-        }
+        boolean balancesChanged = balanceLedgerService.applyChange(Collections.emptyMap(), balanceLedgerService.contributionOf(savedExpense));
+        expenseRollupService.applyChange(Collections.emptyMap(), expenseRollupService.contributionOf(savedExpense));
+
+        // Settlements and job totals are updated in the background once this transaction commits
+        eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, Collections.singletonList(jobIdOf(savedExpense))));
+        publishJobCostChange(Collections.emptyMap(), JobService.costContributionOf(savedExpense));
+        eventPublisher.publishEvent(LiveUpdateEvent.expenseCreated(savedExpense.getId(), jobIdOf(savedExpense)));
 
         return convertToDTO(savedExpense);
     }
 
     /**
-     * Get all expenses.
+     * Validate an expense request against the rules every new expense must satisfy.
+     * Static so callers inside their own transaction can reject a request without marking it rollback-only.
+     * @throws IllegalArgumentException If the request is invalid.
+     */
+    public static void validateExpenseRequest(ExpenseRequest request) {
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+        if (request.getDescription() == null || request.getDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("Description cannot be empty");
+        }
+        if (request.getPaidByUserId() == null) {
+            throw new IllegalArgumentException("Paid by user ID is required");
+        }
+
+        // Validate shared expense logic
+        if (request.isSharedExpense()) {
+            if (request.getSplitUserIds() == null || request.getSplitUserIds().isEmpty()) {
+                throw new IllegalArgumentException("Split user IDs are required for shared expenses");
+            }
+            if (request.getSplitUserIds().contains(request.getPaidByUserId())) {
+                throw new IllegalArgumentException("Payer cannot be included in split users");
+            }
+            // Check for duplicate split users
+            if (request.getSplitUserIds().size() != request.getSplitUserIds().stream().distinct().count()) {
+                throw new IllegalArgumentException("Duplicate split users are not allowed");
+            }
+        }
+
+        if (request.isRecurring()) {
+            Recurrence.monthsPerPeriod(request.getRecurringFrequency());
+        }
+    }
+
+    /**
+     * Get the next occurrence a recurring template is due to generate, or null if the expense is not a template.
+     * @param latestPeriod The latest period already generated for the template, or null if none.
      */
-    public List<ExpenseDTO> getAllExpenses() {
-        return expenseRepository.findAll().stream().map(this::convertToDTO).collect(Collectors.toList());
+    public static LocalDateTime nextDueDateOf(Expense expense, LocalDate latestPeriod) {
+        if (!expense.isRecurring()) {
+            return null;
+        }
+        return Recurrence.nextDueDate(expense.getDate(), expense.getRecurringFrequency(), latestPeriod);
+    }
+
+    /**
+     * Get one page of all expenses.
+     */
+    public ExpensePage getAllExpenses(String cursor, int size, String sort) {
+        return readPage(expenseRepository::findAllBy, cursor, size, sort);
     }
 
     /**
@@ -167,8 +231,18 @@ public class ExpenseService {
         return expenseRepository.findById(id).map(this::convertToDTO);
     }
 
+    /**
+     * Get expenses written after one change sequence number up to another, for the sync change feed.
+     */
+    public List<ExpenseDTO> getChangedExpenses(long after, long upTo, int limit) {
+        return expenseRepository.findChanged(after, upTo, Limit.of(limit)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Update an expense.
+     * @throws ObjectOptimisticLockingFailureException If the request carries a version and the expense has changed since.
      */
     public ExpenseDTO updateExpense(Long id, ExpenseRequest request) {
         Optional<Expense> existingExpense = expenseRepository.findById(id);
@@ -181,6 +255,14 @@ public class ExpenseService {
             if (!expense.getCreatedBy().getUsername().equals(currentUsername)) {
                 throw new RuntimeException("You can only edit expenses that you created");
             }
+            // Changes committed after this check are caught by the version check of the UPDATE itself
+            if (request.getVersion() != null && request.getVersion() != expense.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Expense.class, id);
+            }
+            Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(expense);
+            Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> previousRollup = expenseRollupService.contributionOf(expense);
+            Map<Long, BigDecimal> previousJobCost = JobService.costContributionOf(expense);
+            Long previousJobId = jobIdOf(expense);
             expense.setDescription(request.getDescription());
             expense.setAmount(request.getAmount());
             expense.setCategory(ExpenseCategory.valueOf(request.getCategory()));
@@ -197,7 +279,10 @@ public class ExpenseService {
             expense.setTaxDeductible(request.isTaxDeductible());
             expense.setRecurring(request.isRecurring());
             expense.setRecurringFrequency(request.getRecurringFrequency());
+            // Resume after the latest generated occurrence so editing a template never regenerates a period
+            expense.setNextDueDate(nextDueDateOf(expense, expenseRepository.findLatestRecurrencePeriod(expense.getId())));
             expense.setSharedExpense(request.isSharedExpense());
+            expense.setJob(findJob(request.getJobId()));
 
             int splitCount = 1;
             if (request.isSharedExpense() && request.getSplitUserIds() != null) {
@@ -217,12 +302,16 @@ public class ExpenseService {
                 }
             }
 
-            Expense savedExpense = expenseRepository.save(expense);
+            // Split users live in their own table, so mark the expense itself as changed for the sync feed
+            expense.setUpdatedAt(LocalDateTime.now());
+            // Flushed so the returned version is the one a follow-up update has to send
+            Expense savedExpense = expenseRepository.saveAndFlush(expense);
+            boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, balanceLedgerService.contributionOf(savedExpense));
+            expenseRollupService.applyChange(previousRollup, expenseRollupService.contributionOf(savedExpense));
 
-            // Update settlements if it's a shared expense (regardless of status)
-            if (savedExpense.isSharedExpense()) {
-                settlementService.updateAndPersistSettlements();
-            }
+            // Settlements and job totals are updated in the background once this transaction commits
+            eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, Arrays.asList(previousJobId, jobIdOf(savedExpense))));
+            publishJobCostChange(previousJobCost, JobService.costContributionOf(savedExpense));
 
             return convertToDTO(savedExpense);
         } else {
@@ -230,6 +319,17 @@ public class ExpenseService {
         }
     }
 
+    /**
+     * Point an expense's receipt at a stored receipt.
+     * Receipt files are shared by content, so the previous one is left in the store.
+     */
+    public ExpenseDTO attachReceipt(Long id, String receiptUrl) {
+        Expense expense = expenseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Expense not found with ID: " + id));
+        expense.setReceiptUrl(receiptUrl);
+        return convertToDTO(expenseRepository.saveAndFlush(expense));
+    }
+
     /**
      * Delete an expense.
      */
@@ -244,8 +344,15 @@ public class ExpenseService {
             if (!expense.getCreatedBy().getUsername().equals(currentUsername)) {
                 throw new RuntimeException("You can only delete expenses that you created");
             }
+            Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(expense);
+            Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> previousRollup = expenseRollupService.contributionOf(expense);
             
             expenseRepository.deleteById(id);
+
+            boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, Collections.emptyMap());
+            expenseRollupService.applyChange(previousRollup, Collections.emptyMap());
+            eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, Collections.singletonList(jobIdOf(expense))));
+            publishJobCostChange(JobService.costContributionOf(expense), Collections.emptyMap());
         } else {
             throw new RuntimeException("Expense not found with ID: " + id);
         }
@@ -258,39 +365,178 @@ public class ExpenseService {
         Optional<Expense> existingExpense = expenseRepository.findById(id);
         if (existingExpense.isPresent()) {
             Expense expense = existingExpense.get();
+            Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(expense);
+            Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> previousRollup = expenseRollupService.contributionOf(expense);
+            Map<Long, BigDecimal> previousJobCost = JobService.costContributionOf(expense);
+            ExpenseStatus previousStatus = expense.getStatus();
             expense.setStatus(status);
-            return convertToDTO(expenseRepository.save(expense));
+            Expense savedExpense = expenseRepository.saveAndFlush(expense);
+
+            boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, balanceLedgerService.contributionOf(savedExpense));
+            expenseRollupService.applyChange(previousRollup, expenseRollupService.contributionOf(savedExpense));
+            eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, Collections.singletonList(jobIdOf(savedExpense))));
+            publishJobCostChange(previousJobCost, JobService.costContributionOf(savedExpense));
+            if (status == ExpenseStatus.APPROVED && previousStatus != ExpenseStatus.APPROVED) {
+                eventPublisher.publishEvent(LiveUpdateEvent.expensesApproved(Collections.singletonList(id), Collections.singletonList(jobIdOf(savedExpense))));
+            }
+            return convertToDTO(savedExpense);
         } else {
             throw new RuntimeException("Expense not found with ID: " + id);
         }
     }
 
+    /**
+     * Change the status of many expenses with a single UPDATE.
+     * Every expense is checked against the allowed transitions first; the ones that may not move are
+     * reported back and left unchanged. Ledger and rollups are adjusted with set-based deltas and
+     * settlements are recomputed once for the whole batch.
+     */
+    public BulkStatusResult updateExpenseStatuses(BulkStatusUpdateRequest request) {
+        if (request.getStatus() == null || request.getStatus().isBlank()) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        ExpenseStatus target = ExpenseStatus.valueOf(request.getStatus().trim().toUpperCase());
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == (request.getFilter() != null)) {
+            throw new IllegalArgumentException("Provide either ids or a filter");
+        }
+        Map<Long, Long> expectedVersions = request.getVersions() != null ? request.getVersions() : Collections.emptyMap();
+        if (!byIds && !expectedVersions.isEmpty()) {
+            throw new IllegalArgumentException("Versions can only be given with ids");
+        }
+        List<Long> ids = byIds
+                ? request.getIds().stream().distinct().collect(Collectors.toList())
+                : expenseRepository.findIds(Specification.allOf(toSpecifications(request.getFilter())), MAX_BULK_SIZE + 1);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " expenses can be updated at once");
+        }
+
+        // Rows stay locked until commit, so the deltas below match what the UPDATE changes
+        Map<Long, ExpenseStatus> currentStatuses = new HashMap<>();
+        Map<Long, Long> currentVersions = new HashMap<>();
+        Map<Long, Long> newVersions = new LinkedHashMap<>();
+        List<Long> ledgerMoves = new ArrayList<>();
+        List<RejectedExpense> rejected = new ArrayList<>();
+        for (Object[] row : ids.isEmpty() ? Collections.<Object[]>emptyList() : expenseRepository.lockStatusesForUpdate(ids)) {
+            Long id = (Long) row[0];
+            ExpenseStatus status = (ExpenseStatus) row[1];
+            Long expectedVersion = expectedVersions.get(id);
+            currentStatuses.put(id, status);
+            currentVersions.put(id, (Long) row[2]);
+            if ((expectedVersion == null || expectedVersion.equals(row[2])) && status.canTransitionTo(target)) {
+                newVersions.put(id, (Long) row[2] + 1);
+                if ((Boolean) row[3] && BalanceLedgerService.affectsBalances(status) != BalanceLedgerService.affectsBalances(target)) {
+                    ledgerMoves.add(id);
+                }
+            }
+        }
+
+        List<UpdatedExpense> updated = new ArrayList<>();
+        for (Long id : ids) {
+            ExpenseStatus status = currentStatuses.get(id);
+            Long expectedVersion = expectedVersions.get(id);
+            if (status == null) {
+                rejected.add(new RejectedExpense(id, "Expense not found"));
+            } else if (expectedVersion != null && !expectedVersion.equals(currentVersions.get(id))) {
+                rejected.add(new RejectedExpense(id, "Expense has changed since version " + expectedVersion
+                        + ", current version is " + currentVersions.get(id)));
+            } else if (!newVersions.containsKey(id)) {
+                rejected.add(new RejectedExpense(id, status == target
+                        ? "Expense is already " + target
+                        : "Cannot change status from " + status + " to " + target));
+            } else {
+                updated.add(new UpdatedExpense(id, newVersions.get(id)));
+            }
+        }
+        if (newVersions.isEmpty()) {
+            return new BulkStatusResult(target.name(), updated, rejected);
+        }
+
+        // Each rollup group moves from its current status to the target status
+        Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> rollupDeltas = new HashMap<>();
+        Set<Long> jobIds = new HashSet<>();
+        Map<Long, BigDecimal> jobCostDeltas = new HashMap<>();
+        for (Object[] row : expenseRepository.aggregateRollupsForIds(newVersions.keySet())) {
+            LocalDate day = (LocalDate) row[0];
+            ExpenseCategory category = (ExpenseCategory) row[1];
+            Long paidByUserId = (Long) row[3];
+            Long jobId = ((Number) row[4]).longValue();
+            ExpenseRollupService.RollupDelta delta = new ExpenseRollupService.RollupDelta((BigDecimal) row[5], ((Number) row[6]).longValue());
+            rollupDeltas.merge(new ExpenseRollupService.RollupKey(day, category, (ExpenseStatus) row[2], paidByUserId, jobId),
+                    delta.negate(), ExpenseRollupService.RollupDelta::plus);
+            rollupDeltas.merge(new ExpenseRollupService.RollupKey(day, category, target, paidByUserId, jobId),
+                    delta, ExpenseRollupService.RollupDelta::plus);
+            jobIds.add(jobId == ExpenseDailyRollup.NO_JOB ? null : jobId);
+
+            // Only groups entering or leaving REJECTED change their job's total
+            boolean countedBefore = JobService.countsTowardsJobCost((ExpenseStatus) row[2]);
+            if (jobId != ExpenseDailyRollup.NO_JOB && countedBefore != JobService.countsTowardsJobCost(target)) {
+                jobCostDeltas.merge(jobId, countedBefore ? delta.getAmount().negate() : delta.getAmount(), BigDecimal::add);
+            }
+        }
+
+        // Only shared expenses entering or leaving PENDING/APPROVED change balances
+        Map<Long, BigDecimal> ledgerDeltas = new HashMap<>();
+        for (Expense expense : expenseRepository.findAllById(ledgerMoves)) {
+            balanceLedgerService.contributionOf(expense, target)
+                    .forEach((userId, delta) -> ledgerDeltas.merge(userId, delta, BigDecimal::add));
+            balanceLedgerService.contributionOf(expense)
+                    .forEach((userId, delta) -> ledgerDeltas.merge(userId, delta.negate(), BigDecimal::add));
+        }
+
+        expenseRepository.updateStatuses(newVersions.keySet(), target, changeSequence.next(), LocalDateTime.now());
+        boolean balancesChanged = balanceLedgerService.applyDeltas(ledgerDeltas);
+        expenseRollupService.applyDeltas(rollupDeltas);
+        eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, jobIds));
+        publishJobCostChange(Collections.emptyMap(), jobCostDeltas);
+        if (target == ExpenseStatus.APPROVED) {
+            eventPublisher.publishEvent(LiveUpdateEvent.expensesApproved(newVersions.keySet(), jobIds));
+        }
+
+        return new BulkStatusResult(target.name(), updated, rejected);
+    }
+
     /**
      * Get expenses by status.
      */
-    public List<ExpenseDTO> getExpensesByStatus(ExpenseStatus status) {
-        return expenseRepository.findByStatus(status).stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getExpensesByStatus(ExpenseStatus status, String cursor, int size, String sort) {
+        return readPage((position, limit, order) -> expenseRepository.findByStatus(status, position, limit, order), cursor, size, sort);
     }
 
     /**
      * Get expenses by category.
      */
     public List<ExpenseDTO> getExpensesByCategory(String category) {
-        return expenseRepository.findByCategory(category).stream().map(this::convertToDTO).collect(Collectors.toList());
+        ExpenseCategory expenseCategory = ExpenseCategory.valueOf(category.toUpperCase());
+        return expenseRepository.findByCategory(expenseCategory).stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
     /**
      * Get expenses by user.
      */
-    public List<ExpenseDTO> getExpensesByUser(Long userId) {
-        return expenseRepository.findByPaidByUser_Id(userId).stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getExpensesByUser(Long userId, String cursor, int size, String sort) {
+        return readPage((position, limit, order) -> expenseRepository.findByPaidByUser_Id(userId, position, limit, order), cursor, size, sort);
     }
 
     /**
      * Get expenses by job.
      */
-    public List<ExpenseDTO> getExpensesByJob(Long jobId) {
-        return expenseRepository.findByJob_Id(jobId).stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getExpensesByJob(Long jobId, String cursor, int size, String sort) {
+        return readPage((position, limit, order) -> expenseRepository.findByJob_Id(jobId, position, limit, order), cursor, size, sort);
+    }
+
+    /**
+     * Search expenses with any combination of filters, one page at a time.
+     * The filters that are set are combined into a single query; an empty request matches every expense.
+     * Payers, creators and split users of each page are batch fetched through the @BatchSize mappings.
+     * @throws IllegalArgumentException If a status or category is unknown, or a range is inverted.
+     */
+    public ExpensePage searchExpenses(ExpenseSearchRequest request, String cursor, int size, String sort) {
+        Specification<Expense> specification = Specification.allOf(toSpecifications(request));
+        return readPage((position, limit, order) -> expenseRepository.findBy(specification, query -> query
+                .sortBy(order)
+                .limit(limit.max())
+                .scroll(position)), cursor, size, sort);
     }
 
     /**
@@ -304,70 +550,170 @@ public class ExpenseService {
      * Get total expenses by user in date range.
      */
     public BigDecimal getTotalExpensesByUserInDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = expenseRepository.calculateTotalExpensesByUserInDateRange(userId, startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
+        return expenseRollupService.getTotalByUser(userId, startDate, endDate);
     }
 
     /**
      * Get total expenses by category in date range.
      */
     public BigDecimal getTotalExpensesByCategoryInDateRange(String category, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = expenseRepository.calculateTotalExpensesByCategoryInDateRange(category, startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
+        return expenseRollupService.getTotalByCategory(ExpenseCategory.valueOf(category.toUpperCase()), startDate, endDate);
     }
 
     /**
      * Get shared expenses.
      */
-    public List<ExpenseDTO> getSharedExpenses() {
-        // First, let's see all expenses to debug
-        List<Expense> allExpenses = expenseRepository.findAll();
-        System.out.println("Total expenses in database: " + allExpenses.size());
-        for (Expense expense : allExpenses) {
-            System.out.println("All expense: ID=" + expense.getId() + 
-                             ", Description=" + expense.getDescription() + 
-                             ", Amount=" + expense.getAmount() + 
-                             ", Status=" + expense.getStatus() + 
-                             ", IsShared=" + expense.isSharedExpense() + 
-                             ", SplitCount=" + expense.getSplitCount());
-        }
-        
-        List<Expense> sharedExpenses = expenseRepository.findByIsSharedExpenseTrue();
-        System.out.println("Found " + sharedExpenses.size() + " shared expenses in database");
-        for (Expense expense : sharedExpenses) {
-            System.out.println("Shared expense: ID=" + expense.getId() + 
-                             ", Description=" + expense.getDescription() + 
-                             ", Amount=" + expense.getAmount() + 
-                             ", Status=" + expense.getStatus() + 
-                             ", SplitCount=" + expense.getSplitCount() + 
-                             ", SplitUsers=" + expense.getSplitUsers().size());
-        }
-        return sharedExpenses.stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getSharedExpenses(String cursor, int size, String sort) {
+        return readPage(expenseRepository::findByIsSharedExpenseTrue, cursor, size, sort);
     }
 
     /**
      * Get tax deductible expenses.
      */
-    public List<ExpenseDTO> getTaxDeductibleExpenses() {
-        return expenseRepository.findByIsTaxDeductibleTrue().stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getTaxDeductibleExpenses(String cursor, int size, String sort) {
+        return readPage(expenseRepository::findByIsTaxDeductibleTrue, cursor, size, sort);
     }
 
     /**
      * Get recurring expenses.
      */
-    public List<ExpenseDTO> getRecurringExpenses() {
-        return expenseRepository.findByIsRecurringTrue().stream().map(this::convertToDTO).collect(Collectors.toList());
+    public ExpensePage getRecurringExpenses(String cursor, int size, String sort) {
+        return readPage(expenseRepository::findByIsRecurringTrue, cursor, size, sort);
+    }
+
+    /**
+     * Read one page of expenses ordered by (date, id) in the requested direction.
+     * The cursor holds the sort key of the last expense on the previous page, so every page is an index range
+     * scan that starts where the previous one stopped instead of an offset that grows with the page number.
+     */
+    private ExpensePage readPage(ExpenseWindowQuery query, String cursor, int size, String sort) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        Sort.Direction direction = parseSortDirection(sort);
+        ScrollPosition position = cursor == null || cursor.isBlank() ? ScrollPosition.keyset() : decodeCursor(cursor, direction);
+
+        Window<Expense> window = query.find(position, Limit.of(pageSize), Sort.by(direction, "date", "id"));
+        List<ExpenseDTO> content = window.stream().map(this::convertToDTO).collect(Collectors.toList());
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encodeCursor(direction, window.getContent().get(window.size() - 1));
+        }
+        return new ExpensePage(content, pageSize, "date," + direction.name().toLowerCase(), nextCursor);
+    }
+
+    // Helper method to parse a sort option of the form "date,desc" or "date,asc"
+    private Sort.Direction parseSortDirection(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.Direction.DESC;
+        }
+        String[] parts = sort.split(",");
+        if (!parts[0].trim().equals("date") || parts.length > 2) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort + " (expected date,asc or date,desc)");
+        }
+        if (parts.length == 1) {
+            return Sort.Direction.DESC;
+        }
+        return Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort direction: " + parts[1]));
+    }
+
+    // Helper method to build the opaque cursor pointing just past the given expense
+    private String encodeCursor(Sort.Direction direction, Expense last) {
+        String key = direction.name() + CURSOR_SEPARATOR + last.getDate() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Helper method to turn a cursor back into a keyset position, rejecting cursors issued for another sort
+    private ScrollPosition decodeCursor(String cursor, Sort.Direction direction) {
+        String[] parts;
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            keys.put("date", LocalDateTime.parse(parts[1]));
+            keys.put("id", Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (!parts[0].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort than " + direction.name().toLowerCase());
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    // Helper method to turn the filters that are set into specifications
+    private List<Specification<Expense>> toSpecifications(ExpenseSearchRequest request) {
+        List<Specification<Expense>> specifications = new ArrayList<>();
+        if (request.getStatus() != null && !request.getStatus().isEmpty()) {
+            List<ExpenseStatus> statuses = new ArrayList<>();
+            for (String status : request.getStatus()) {
+                statuses.add(ExpenseStatus.valueOf(status.trim().toUpperCase()));
+            }
+            specifications.add(ExpenseSpecifications.hasStatusIn(statuses));
+        }
+        if (request.getCategory() != null && !request.getCategory().isEmpty()) {
+            List<ExpenseCategory> categories = new ArrayList<>();
+            for (String category : request.getCategory()) {
+                categories.add(ExpenseCategory.valueOf(category.trim().toUpperCase()));
+            }
+            specifications.add(ExpenseSpecifications.hasCategoryIn(categories));
+        }
+        if (request.getPaidByUserId() != null) {
+            specifications.add(ExpenseSpecifications.paidBy(request.getPaidByUserId()));
+        }
+        if (request.getJobId() != null) {
+            specifications.add(ExpenseSpecifications.forJob(request.getJobId()));
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (request.getFrom() != null) {
+            specifications.add(ExpenseSpecifications.onOrAfter(request.getFrom().atStartOfDay()));
+        }
+        if (request.getTo() != null) {
+            // The end date is inclusive, so the range stops at the start of the following day
+            specifications.add(ExpenseSpecifications.before(request.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        if (request.getMinAmount() != null) {
+            specifications.add(ExpenseSpecifications.amountAtLeast(request.getMinAmount()));
+        }
+        if (request.getMaxAmount() != null) {
+            specifications.add(ExpenseSpecifications.amountAtMost(request.getMaxAmount()));
+        }
+        if (request.getShared() != null) {
+            specifications.add(ExpenseSpecifications.isShared(request.getShared()));
+        }
+        if (request.getTaxDeductible() != null) {
+            specifications.add(ExpenseSpecifications.isTaxDeductible(request.getTaxDeductible()));
+        }
+        return specifications;
+    }
+
+    // Query for one window of expenses from a keyset position
+    @FunctionalInterface
+    private interface ExpenseWindowQuery {
+        Window<Expense> find(ScrollPosition position, Limit limit, Sort sort);
     }
 
     private ExpenseDTO convertToDTO(Expense expense) {
         ExpenseDTO dto = new ExpenseDTO();
         dto.setId(expense.getId());
+        dto.setVersion(expense.getVersion());
         dto.setDescription(expense.getDescription());
         dto.setAmount(expense.getAmount());
         dto.setCategory(expense.getCategory().name());
         dto.setStatus(expense.getStatus().name());
         dto.setDate(expense.getDate());
         dto.setNotes(expense.getNotes());
+        dto.setReceiptUrl(expense.getReceiptUrl());
         dto.setTaxDeductible(expense.isTaxDeductible());
         dto.setRecurring(expense.isRecurring());
         dto.setRecurringFrequency(expense.getRecurringFrequency());
@@ -378,9 +724,8 @@ public class ExpenseService {
         if (expense.getCreatedBy() != null) {
             dto.setCreatedByUsername(expense.getCreatedBy().getUsername());
             dto.setCreatedBy(new UserDTO(expense.getCreatedBy().getId(), expense.getCreatedBy().getUsername()));
-            System.out.println("Setting createdByUsername to: " + expense.getCreatedBy().getUsername());
         } else {
-            System.out.println("WARNING: Expense " + expense.getId() + " has no createdBy field!");
+            logger.warn("Expense {} has no createdBy user", expense.getId());
         }
         if (expense.getJob() != null) {
             dto.setJobTitle(expense.getJob().getTitle());
@@ -393,6 +738,76 @@ public class ExpenseService {
                     .collect(Collectors.toList()));
         }
         dto.setCreatedAt(expense.getCreatedAt());
+        dto.setUpdatedAt(expense.getUpdatedAt());
+        dto.setChangeSeq(expense.getChangeSeq());
         return dto;
     }
+
+    // Helper method to resolve the job an expense is charged to; no job ID leaves it unassigned
+    private Job findJob(Long jobId) {
+        if (jobId == null) {
+            return null;
+        }
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found with ID: " + jobId));
+    }
+
+    // Helper method to publish the change in job totals, if any job is affected
+    private void publishJobCostChange(Map<Long, BigDecimal> before, Map<Long, BigDecimal> after) {
+        JobCostsChangedEvent event = JobCostsChangedEvent.between(before, after);
+        if (!event.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    // Helper method to get the job an expense's settlements are partitioned by
+    private Long jobIdOf(Expense expense) {
+        return expense.getJob() != null ? expense.getJob().getId() : null;
+    }
+
+    // Inner class for bulk status change results
+    public static class BulkStatusResult {
+        private String status;
+        private List<UpdatedExpense> updated;
+        private List<RejectedExpense> rejected;
+
+        public BulkStatusResult(String status, List<UpdatedExpense> updated, List<RejectedExpense> rejected) {
+            this.status = status;
+            this.updated = updated;
+            this.rejected = rejected;
+        }
+
+        // Getters
+        public String getStatus() { return status; }
+        public List<UpdatedExpense> getUpdated() { return updated; }
+        public List<RejectedExpense> getRejected() { return rejected; }
+    }
+
+    public static class UpdatedExpense {
+        private Long id;
+        private long version;
+
+        public UpdatedExpense(Long id, long version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public long getVersion() { return version; }
+    }
+
+    public static class RejectedExpense {
+        private Long id;
+        private String reason;
+
+        public RejectedExpense(Long id, String reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public String getReason() { return reason; }
+    }
 }
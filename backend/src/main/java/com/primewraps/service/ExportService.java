@@ -0,0 +1,236 @@
+package com.primewraps.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseCategory;
+import com.primewraps.model.ExpenseStatus;
+import com.primewraps.model.Job;
+import com.primewraps.model.JobStatus;
+import com.primewraps.model.Settlement;
+import com.primewraps.model.SettlementStatus;
+import com.primewraps.repository.ExpenseRepository;
+import com.primewraps.repository.JobRepository;
+import com.primewraps.repository.SettlementRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams expenses, jobs and settlements as CSV or NDJSON.
+ * Rows are written as they are read from a forward-only cursor, and the persistence context is cleared
+ * periodically, so memory use does not grow with the number of rows exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    // Rows between persistence context clears; matches the cursor fetch size
+    private static final int CLEAR_INTERVAL = ExpenseRepository.EXPORT_FETCH_SIZE;
+
+    private static final List<String> EXPENSE_COLUMNS = Arrays.asList("id", "date", "description", "category", "status",
+            "amount", "paidBy", "createdBy", "job", "sharedExpense", "splitCount", "splitUsers", "taxDeductible",
+            "recurring", "recurringFrequency", "notes", "createdAt");
+
+    private static final List<String> JOB_COLUMNS = Arrays.asList("id", "title", "clientName", "location", "status",
+            "startDate", "endDate", "totalRevenue", "totalExpenses", "profitMargin", "createdAt");
+
+    private static final List<String> SETTLEMENT_COLUMNS = Arrays.asList("id", "fromUser", "toUser", "amount", "status",
+            "createdAt", "dueDate", "paidDate", "paymentMethod", "jobId", "notes");
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Export expenses dated within [from, to], optionally filtered by category and status.
+     * @param format "csv" or "ndjson".
+     */
+    public StreamingResponseBody exportExpenses(String format, LocalDate from, LocalDate to,
+                                                ExpenseCategory category, ExpenseStatus status) {
+        return export("expenses", format, EXPENSE_COLUMNS,
+            () -> expenseRepository.streamForExport(startOf(from), endOf(to), category, status),
+            (Object[] row) -> {
+                Expense expense = (Expense) row[0];
+                return new Object[] { expense.getId(), expense.getDate(), expense.getDescription(), expense.getCategory(),
+                    expense.getStatus(), expense.getAmount(), row[1], row[2], row[3], expense.isSharedExpense(),
+                    expense.getSplitCount(), row[4], expense.isTaxDeductible(), expense.isRecurring(),
+                    expense.getRecurringFrequency(), expense.getNotes(), expense.getCreatedAt() };
+            });
+    }
+
+    /**
+     * Export jobs starting within [from, to], optionally filtered by status.
+     * @param format "csv" or "ndjson".
+     */
+    public StreamingResponseBody exportJobs(String format, LocalDate from, LocalDate to, JobStatus status) {
+        return export("jobs", format, JOB_COLUMNS,
+            () -> jobRepository.streamForExport(startOf(from), endOf(to), status),
+            (Job job) -> new Object[] { job.getId(), job.getTitle(), job.getClientName(), job.getLocation(), job.getStatus(),
+                job.getStartDate(), job.getEndDate(), job.getTotalRevenue(), job.getTotalExpenses(), job.getProfitMargin(),
+                job.getCreatedAt() });
+    }
+
+    /**
+     * Export settlements created within [from, to], optionally filtered by status.
+     * @param format "csv" or "ndjson".
+     */
+    public StreamingResponseBody exportSettlements(String format, LocalDate from, LocalDate to, SettlementStatus status) {
+        return export("settlements", format, SETTLEMENT_COLUMNS,
+            () -> settlementRepository.streamForExport(startOf(from), endOf(to), status),
+            (Object[] row) -> {
+                Settlement settlement = (Settlement) row[0];
+                return new Object[] { settlement.getId(), row[1], row[2], settlement.getAmount(), settlement.getStatus(),
+                    settlement.getCreatedAt(), settlement.getDueDate(), settlement.getPaidDate(),
+                    settlement.getPaymentMethod(), row[3], settlement.getNotes() };
+            });
+    }
+
+    /**
+     * Get the content type of an export format.
+     * @throws IllegalArgumentException If the format is not csv or ndjson.
+     */
+    public String contentTypeOf(String format) {
+        return isCsv(format) ? "text/csv" : "application/x-ndjson";
+    }
+
+    /**
+     * Wrap a plain text message so error responses can share the streaming return type of the export endpoints.
+     */
+    public static StreamingResponseBody messageBody(String message) {
+        return outputStream -> outputStream.write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Helper method to stream query results to the response inside a read-only transaction that lives as long as the cursor
+    private <T> StreamingResponseBody export(String name, String format, List<String> columns,
+                                             Supplier<Stream<T>> query, Function<T, Object[]> toRow) {
+        boolean csv = isCsv(format);
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            long rowCount = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<T> rows = query.get()) {
+                    if (csv) {
+                        writeCsvRow(writer, columns.toArray());
+                    }
+                    Iterator<T> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] values = toRow.apply(iterator.next());
+                        if (csv) {
+                            writeCsvRow(writer, values);
+                        } else {
+                            writeJsonRow(writer, columns, values);
+                        }
+                        // Exported entities are never needed again, so drop them instead of letting the context grow
+                        if (++count % CLEAR_INTERVAL == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            writer.flush();
+            logger.info("Exported {} {} as {} in {} ms", rowCount, name, csv ? "csv" : "ndjson", System.currentTimeMillis() - start);
+        };
+    }
+
+    // Helper method to write one CSV record, quoting fields that need it
+    private void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // Helper method to write one JSON object per line with the columns as field names
+    private void writeJsonRow(Writer writer, List<String> columns, Object[] values) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            row.put(columns.get(i), values[i]);
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    // Helper method to format a CSV field; text that a spreadsheet would treat as a formula is prefixed with a quote
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    // Helper method to check the export format
+    private boolean isCsv(String format) {
+        if (format == null || format.equalsIgnoreCase("csv")) {
+            return true;
+        }
+        if (format.equalsIgnoreCase("ndjson") || format.equalsIgnoreCase("jsonl")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format + " (expected csv or ndjson)");
+    }
+
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : null;
+    }
+
+    // The end date is inclusive, so the range stops at the start of the following day
+    private static LocalDateTime endOf(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : null;
+    }
+}
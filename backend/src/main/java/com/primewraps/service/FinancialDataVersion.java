@@ -0,0 +1,48 @@
+package com.primewraps.service;
+
+import com.primewraps.event.FinancialDataChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing version of the financial data (expenses, splits and settlements).
+ * Bumped after every committed mutation and used to key cached calculations and build ETags.
+ * The version lives in memory, so ETags also carry the process start time to stay unique across restarts.
+ */
+@Component
+public class FinancialDataVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Bump the version once the publishing transaction has committed.
+     * Runs before other after-commit listeners so they observe the new version.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get the current version.
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Build an entity tag for a representation derived from the given version.
+     * @param version The version the representation was computed from.
+     * @param variant Distinguishes different representations of the same version (e.g. the strategy used).
+     */
+    public String etag(long version, String variant) {
+        return "\"" + Long.toString(epoch, 36) + "-" + version + "-" + variant + "\"";
+    }
+}
@@ -0,0 +1,74 @@
+package com.primewraps.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Greedy settlement strategy: repeatedly matches the largest creditor with the largest debtor.
+ * Runs in O(n log n) using two heaps over primitive cent balances and produces at most n - 1 transfers.
+ */
+@Component
+public class GreedySettlementStrategy implements SettlementStrategy {
+
+    public static final String NAME = "greedy";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Transfer> settle(long[] userIds, long[] balanceCents) {
+        long[] remaining = balanceCents.clone();
+        List<Transfer> transfers = new ArrayList<>();
+        settleInto(userIds, remaining, indicesOf(remaining), transfers);
+        return transfers;
+    }
+
+    /**
+     * Settle the users at the given indices, mutating {@code remaining} and appending to {@code transfers}.
+     * Shared with strategies that first partition users into independent groups.
+     */
+    static void settleInto(long[] userIds, long[] remaining, int[] indices, List<Transfer> transfers) {
+        // Max-heaps by magnitude of the remaining balance
+        PriorityQueue<Integer> creditors = new PriorityQueue<>(Math.max(1, indices.length),
+                (a, b) -> Long.compare(remaining[b], remaining[a]));
+        PriorityQueue<Integer> debtors = new PriorityQueue<>(Math.max(1, indices.length),
+                (a, b) -> Long.compare(remaining[a], remaining[b]));
+        for (int i : indices) {
+            if (remaining[i] > 0) {
+                creditors.add(i);
+            } else if (remaining[i] < 0) {
+                debtors.add(i);
+            }
+        }
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.poll();
+            int debtor = debtors.poll();
+            long amount = Math.min(remaining[creditor], -remaining[debtor]);
+
+            transfers.add(new Transfer(userIds[debtor], userIds[creditor], amount));
+            remaining[creditor] -= amount;
+            remaining[debtor] += amount;
+
+            if (remaining[creditor] > 0) {
+                creditors.add(creditor);
+            }
+            if (remaining[debtor] < 0) {
+                debtors.add(debtor);
+            }
+        }
+    }
+
+    private static int[] indicesOf(long[] balances) {
+        int[] indices = new int[balances.length];
+        for (int i = 0; i < balances.length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,41 @@
+package com.primewraps.service;
+
+import com.primewraps.event.JobCostsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps each job's total expenses and profit margin in step with its linked expenses.
+ * Changes are applied as deltas once the expense change has committed, so a rolled back change
+ * never touches the job and the expense transaction never locks job rows.
+ */
+@Component
+public class JobCostListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCostListener.class);
+
+    @Autowired
+    private JobService jobService;
+
+    /**
+     * Apply job cost changes once the publishing transaction has committed.
+     * A failure here leaves the totals drifted until the next reconciliation, which corrects them.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobCostsChanged(JobCostsChangedEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        try {
+            jobService.applyExpenseDeltas(event.getDeltas());
+            // Invalidate after the job update has committed so the summary is not recomputed from old totals
+            jobService.invalidateSummaryCache();
+        } catch (Exception e) {
+            logger.error("Failed to apply job cost changes {}", event.getDeltas(), e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.primewraps.service;
+
+import com.primewraps.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically recomputes every job's total expenses from its expenses with a single aggregate update.
+ * Job totals are normally maintained incrementally by {@link JobCostListener}; this catches anything
+ * that slipped past it (a failed listener, a direct database edit) and reports which jobs had drifted.
+ */
+@Component
+public class JobCostReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCostReconciler.class);
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalDriftedJobs = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile List<JobDrift> lastDrift = List.of();
+    private volatile int lastJobsUpdated;
+    private volatile long lastDurationMs;
+    private volatile long maxDurationMs;
+
+    /**
+     * Recompute all job totals, writing only the ones that changed, and refresh the margins of jobs whose totals had drifted.
+     * @return The jobs whose stored totals differed from their expenses.
+     */
+    @Scheduled(cron = "${jobs.cost-reconciliation.cron:0 30 3 * * *}")
+    @Transactional
+    public List<JobDrift> reconcile() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<JobDrift> drift = new ArrayList<>();
+        List<Long> driftedJobIds = new ArrayList<>();
+        for (Object[] row : jobRepository.findExpenseTotalDrift()) {
+            JobDrift jobDrift = new JobDrift((Long) row[0], toAmount(row[1]), toAmount(row[2]));
+            drift.add(jobDrift);
+            driftedJobIds.add(jobDrift.getJobId());
+            logger.warn("Job {} total expenses drifted: stored {}, actual {}",
+                    jobDrift.getJobId(), jobDrift.getStoredTotal(), jobDrift.getActualTotal());
+        }
+
+        int updated = jobRepository.recomputeTotalExpenses(changeSequence.next(), now);
+        if (!driftedJobIds.isEmpty()) {
+            jobService.refreshProfitMargins(driftedJobIds);
+            jobService.invalidateSummaryCache();
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        runs.incrementAndGet();
+        totalDriftedJobs.addAndGet(drift.size());
+        lastRunAt = now;
+        lastDrift = List.copyOf(drift);
+        lastJobsUpdated = updated;
+        lastDurationMs = duration;
+        maxDurationMs = Math.max(maxDurationMs, duration);
+        logger.info("Job cost reconciliation corrected {} jobs and found {} drifted in {} ms",
+                updated, drift.size(), duration);
+        return drift;
+    }
+
+    /**
+     * Get statistics about completed reconciliations.
+     */
+    public ReconciliationStatus getStatus() {
+        return new ReconciliationStatus(runs.get(), totalDriftedJobs.get(), lastRunAt, lastJobsUpdated, lastDrift,
+                lastDurationMs, maxDurationMs);
+    }
+
+    private BigDecimal toAmount(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    // Inner class for a job whose stored total differed from its expenses
+    public static class JobDrift {
+        private Long jobId;
+        private BigDecimal storedTotal;
+        private BigDecimal actualTotal;
+
+        public JobDrift(Long jobId, BigDecimal storedTotal, BigDecimal actualTotal) {
+            this.jobId = jobId;
+            this.storedTotal = storedTotal;
+            this.actualTotal = actualTotal;
+        }
+
+        // Getters
+        public Long getJobId() { return jobId; }
+        public BigDecimal getStoredTotal() { return storedTotal; }
+        public BigDecimal getActualTotal() { return actualTotal; }
+        public BigDecimal getDifference() { return storedTotal.subtract(actualTotal); }
+    }
+
+    // Inner class for reconciliation statistics
+    public static class ReconciliationStatus {
+        private long runs;
+        private long totalDriftedJobs;
+        private LocalDateTime lastRunAt;
+        private int lastJobsUpdated;
+        private List<JobDrift> lastDrift;
+        private long lastDurationMs;
+        private long maxDurationMs;
+
+        public ReconciliationStatus(long runs, long totalDriftedJobs, LocalDateTime lastRunAt, int lastJobsUpdated,
+                                    List<JobDrift> lastDrift, long lastDurationMs, long maxDurationMs) {
+            this.runs = runs;
+            this.totalDriftedJobs = totalDriftedJobs;
+            this.lastRunAt = lastRunAt;
+            this.lastJobsUpdated = lastJobsUpdated;
+            this.lastDrift = lastDrift;
+            this.lastDurationMs = lastDurationMs;
+            this.maxDurationMs = maxDurationMs;
+        }
+
+        // Getters
+        public long getRuns() { return runs; }
+        public long getTotalDriftedJobs() { return totalDriftedJobs; }
+        public LocalDateTime getLastRunAt() { return lastRunAt; }
+        public int getLastJobsUpdated() { return lastJobsUpdated; }
+        public List<JobDrift> getLastDrift() { return lastDrift; }
+        public long getLastDurationMs() { return lastDurationMs; }
+        public long getMaxDurationMs() { return maxDurationMs; }
+    }
+}
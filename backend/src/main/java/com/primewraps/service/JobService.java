@@ -1,20 +1,31 @@
 package com.primewraps.service;
 
+import com.primewraps.event.LiveUpdateEvent;
 import com.primewraps.model.*;
 import com.primewraps.repository.JobRepository;
 import com.primewraps.repository.UserRepository;
 import com.primewraps.dto.JobRequest;
+import com.primewraps.util.CachedValue;
+import com.primewraps.util.Money;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +37,22 @@ public class JobService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${summaries.cache-ttl-ms:5000}")
+    private long summaryCacheTtlMs;
+
+    private CachedValue<JobSummary> summaryCache;
+
+    @PostConstruct
+    public void init() {
+        summaryCache = new CachedValue<>(summaryCacheTtlMs);
+    }
+
     public ResponseEntity<?> createJob(JobRequest request) {
         try {
             // Validate required fields
@@ -78,6 +105,7 @@ public class JobService {
                 jobRepository.save(savedJob);
             }
 
+            summaryCache.invalidate();
             return ResponseEntity.ok(savedJob);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error creating job: " + e.getMessage());
@@ -114,6 +142,7 @@ public class JobService {
             }
 
             Job job = jobOpt.get();
+            JobStatus previousStatus = job.getStatus();
             
             // Update fields
             if (request.getTitle() != null) {
@@ -145,6 +174,8 @@ public class JobService {
             updateJobProfitMargin(job);
 
             Job updatedJob = jobRepository.save(job);
+            summaryCache.invalidate();
+            publishStatusChange(updatedJob, previousStatus);
             return ResponseEntity.ok(updatedJob);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error updating job: " + e.getMessage());
@@ -167,6 +198,7 @@ public class JobService {
             }
 
             jobRepository.deleteById(id);
+            summaryCache.invalidate();
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error deleting job: " + e.getMessage());
@@ -181,6 +213,7 @@ public class JobService {
             }
 
             Job job = jobOpt.get();
+            JobStatus previousStatus = job.getStatus();
             job.setStatus(status);
             
             // If job is completed, update end date if not set
@@ -189,12 +222,22 @@ public class JobService {
             }
 
             Job updatedJob = jobRepository.save(job);
+            summaryCache.invalidate();
+            publishStatusChange(updatedJob, previousStatus);
             return ResponseEntity.ok(updatedJob);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error updating job status: " + e.getMessage());
         }
     }
 
+    // Helper method to notify live update subscribers; the save has already committed, so the event is delivered right away
+    private void publishStatusChange(Job job, JobStatus previousStatus) {
+        if (job.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(LiveUpdateEvent.jobStatusChanged(job.getId(),
+                    previousStatus != null ? previousStatus.name() : null, job.getStatus().name()));
+        }
+    }
+
     public ResponseEntity<?> getJobsByStatus(JobStatus status) {
         try {
             List<Job> jobs = jobRepository.findByStatus(status);
@@ -270,40 +313,97 @@ public class JobService {
         }
     }
 
+    /**
+     * Get job counts and totals. Computed with one aggregate query and cached briefly,
+     * since the dashboard requests it on every render; any job change invalidates the cache.
+     */
     public ResponseEntity<?> getJobSummary() {
         try {
-            long totalJobs = jobRepository.count();
-            long activeJobs = jobRepository.countByStatus(JobStatus.IN_PROGRESS);
-            long completedJobs = jobRepository.countByStatus(JobStatus.COMPLETED);
-            BigDecimal totalRevenue = jobRepository.calculateTotalRevenue();
-            BigDecimal totalProfit = jobRepository.calculateTotalProfit();
-
-            return ResponseEntity.ok(new JobSummary(
-                totalJobs,
-                activeJobs,
-                completedJobs,
-                totalRevenue != null ? totalRevenue : BigDecimal.ZERO,
-                totalProfit != null ? totalProfit : BigDecimal.ZERO
-            ));
+            return ResponseEntity.ok(summaryCache.get(this::computeJobSummary));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error fetching job summary: " + e.getMessage());
         }
     }
 
+    // Helper method to compute the job summary in a single round trip
+    private JobSummary computeJobSummary() {
+        Object[] row = jobRepository.summarize().get(0);
+        return new JobSummary(
+            ((Number) row[0]).longValue(),
+            ((Number) row[1]).longValue(),
+            ((Number) row[2]).longValue(),
+            (BigDecimal) row[3],
+            (BigDecimal) row[4]
+        );
+    }
+
     // Helper method to update job profit margin
     private void updateJobProfitMargin(Job job) {
         if (job.getTotalRevenue() != null && job.getTotalExpenses() != null) {
-            if (job.getTotalRevenue().compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal profit = job.getTotalRevenue().subtract(job.getTotalExpenses());
-                BigDecimal margin = profit.divide(job.getTotalRevenue(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-                job.setProfitMargin(margin);
+            Money revenue = Money.of(job.getTotalRevenue());
+            if (revenue.signum() > 0) {
+                Money profit = revenue.minus(Money.of(job.getTotalExpenses()));
+                // Margin is stored as a percentage with two decimals
+                job.setProfitMargin(BigDecimal.valueOf(profit.percentOfInBasisPoints(revenue), 2));
             } else {
                 job.setProfitMargin(BigDecimal.ZERO);
             }
         }
     }
 
+    /**
+     * Get the amount an expense adds to its job's total expenses, keyed by job ID.
+     * Every expense linked to a job counts except rejected ones.
+     */
+    public static Map<Long, BigDecimal> costContributionOf(Expense expense) {
+        Map<Long, BigDecimal> contribution = new HashMap<>();
+        if (expense != null && expense.getJob() != null && expense.getAmount() != null
+                && countsTowardsJobCost(expense.getStatus())) {
+            contribution.put(expense.getJob().getId(), expense.getAmount());
+        }
+        return contribution;
+    }
+
+    /**
+     * Check whether expenses in a status count towards their job's total expenses.
+     */
+    public static boolean countsTowardsJobCost(ExpenseStatus status) {
+        return status != ExpenseStatus.REJECTED;
+    }
+
+    /**
+     * Apply changes in job expense totals and refresh the profit margins of the affected jobs.
+     * Totals are adjusted with atomic increments, so concurrent changes to the same job are not lost.
+     * Runs in its own transaction since it is called after the expense change has committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void applyExpenseDeltas(Map<Long, BigDecimal> deltas) {
+        long changeSeq = changeSequence.next();
+        LocalDateTime now = LocalDateTime.now();
+        // Update jobs in ID order so concurrent callers lock rows in the same order
+        for (Long jobId : new TreeSet<>(deltas.keySet())) {
+            jobRepository.addToTotalExpenses(jobId, deltas.get(jobId), changeSeq, now);
+        }
+        refreshProfitMargins(deltas.keySet());
+    }
+
+    /**
+     * Recompute the profit margins of the given jobs from their stored totals.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshProfitMargins(Collection<Long> jobIds) {
+        for (Job job : jobRepository.findAllById(jobIds)) {
+            updateJobProfitMargin(job);
+        }
+    }
+
+    /**
+     * Drop the cached job summary after job totals were changed outside this service's own methods.
+     */
+    public void invalidateSummaryCache() {
+        summaryCache.invalidate();
+    }
+
     // Helper method to update job expenses
     public void updateJobExpenses(Long jobId, BigDecimal newTotalExpenses) {
         Optional<Job> jobOpt = jobRepository.findById(jobId);
@@ -312,6 +412,7 @@ public class JobService {
             job.setTotalExpenses(newTotalExpenses);
             updateJobProfitMargin(job);
             jobRepository.save(job);
+            summaryCache.invalidate();
         }
     }
 
@@ -0,0 +1,364 @@
+package com.primewraps.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primewraps.event.LiveUpdateEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes live update events to connected dashboards over Server-Sent Events.
+ * Connections are held as asynchronous requests, so an idle subscriber costs no servlet thread. Every subscriber
+ * has a bounded buffer that a small shared pool drains; a subscriber whose buffer overflows, that has not
+ * accepted anything within the stall timeout, or whose write has been blocked longer than the write timeout, is
+ * disconnected with an error instead of holding up the others. A delivery thread stuck in such a write is replaced
+ * until the write returns, so stuck clients never leave the other subscribers without a thread. Heartbeats keep
+ * idle connections open through proxies and detect clients that went away.
+ * Subscribers are held in memory, so events only reach clients connected to the instance that committed the change.
+ */
+@Service
+public class LiveEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveEventService.class);
+
+    // Tells EventSource clients how long to wait before reconnecting
+    private static final long RECONNECT_DELAY_MS = 3000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${events.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${events.delivery-threads:2}")
+    private int deliveryThreads;
+
+    @Value("${events.stall-timeout-ms:60000}")
+    private long stallTimeoutMs;
+
+    @Value("${events.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    @Value("${events.connection-timeout-ms:1800000}")
+    private long connectionTimeoutMs;
+
+    private ThreadPoolExecutor deliveryExecutor;
+
+    // Delivery threads blocked in a write to an evicted subscriber, each replaced by an extra thread
+    private int blockedThreads;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stream for the given user.
+     * @throws IllegalStateException If the maximum number of connections is reached.
+     */
+    public SseEmitter subscribe(String username) {
+        if (subscribers.size() >= maxConnections) {
+            rejected.incrementAndGet();
+            throw new IllegalStateException("Too many live event connections, try again later");
+        }
+        // The emitter times out after a while so that clients reconnect and re-authenticate
+        SseEmitter emitter = new SseEmitter(connectionTimeoutMs);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), username, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.put(subscriber.id, subscriber);
+
+        // Send something right away so the response headers reach the client before the first event
+        enqueue(subscriber, Message.CONNECTED);
+        logger.debug("Live event subscriber {} connected for {} ({} connected)", subscriber.id, username, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Push an event to every subscriber once the publishing transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLiveUpdate(LiveUpdateEvent event) {
+        published.incrementAndGet();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType());
+        payload.put("at", LocalDateTime.now());
+        payload.putAll(event.getData());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize live event {}", event.getType(), e);
+            return;
+        }
+        // Serialized once and shared by every subscriber
+        Message message = Message.event(String.valueOf(eventIds.incrementAndGet()), event.getType(), json);
+        for (Subscriber subscriber : subscribers.values()) {
+            enqueue(subscriber, message);
+        }
+    }
+
+    /**
+     * Send a heartbeat to every subscriber and disconnect the ones that stopped accepting data.
+     */
+    @Scheduled(initialDelayString = "${events.heartbeat-ms:15000}", fixedDelayString = "${events.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers.values()) {
+            long sendStartedMs = subscriber.sendStartedMs;
+            if (sendStartedMs > 0 && now - sendStartedMs > writeTimeoutMs) {
+                evict(subscriber, "write blocked for " + (now - sendStartedMs) + " ms");
+            } else if (!subscriber.queue.isEmpty() && now - subscriber.lastProgressMs > stallTimeoutMs) {
+                evict(subscriber, "no data accepted for " + (now - subscriber.lastProgressMs) + " ms");
+            } else {
+                enqueue(subscriber, Message.HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * Get connection and delivery counters of the live event stream.
+     */
+    public StreamStatus getStatus() {
+        return new StreamStatus(subscribers.size(), maxConnections, published.get(), delivered.get(), evicted.get(), rejected.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    // Helper method to buffer a message for a subscriber and make sure its buffer is being drained
+    private void enqueue(Subscriber subscriber, Message message) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            evict(subscriber, "buffer of " + bufferSize + " messages is full");
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    // Helper method to start draining a subscriber unless a drain is already running for it
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            deliveryExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Helper method to write buffered messages to a subscriber; at most one drain runs per subscriber at a time,
+    // and only the drain touches the emitter, so a write blocked on a stuck client never holds up the caller
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Message message;
+            while (!subscriber.closed && (message = subscriber.queue.poll()) != null) {
+                subscriber.sendStartedMs = System.currentTimeMillis();
+                try {
+                    subscriber.emitter.send(message.toEvent());
+                    subscriber.lastProgressMs = System.currentTimeMillis();
+                    if (message.name != null) {
+                        delivered.incrementAndGet();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the emitter is already complete
+                    logger.debug("Live event subscriber {} disconnected: {}", subscriber.id, e.getMessage());
+                    remove(subscriber);
+                    return;
+                } finally {
+                    subscriber.sendStartedMs = 0;
+                    releaseBlockedThread(subscriber);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.emitter.completeWithError(new SubscriberEvictedException(subscriber.closeReason));
+                return;
+            }
+            subscriber.draining.set(false);
+            // A message or eviction that arrived after the last check would otherwise be stranded
+            if ((subscriber.queue.isEmpty() && !subscriber.closed) || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    // Helper method to disconnect a subscriber that cannot keep up
+    private void evict(Subscriber subscriber, String reason) {
+        if (remove(subscriber)) {
+            evicted.incrementAndGet();
+            logger.warn("Disconnecting slow live event subscriber {} ({}): {}", subscriber.id, subscriber.username, reason);
+            subscriber.closeReason = reason;
+            subscriber.closed = true;
+            subscriber.queue.clear();
+            // The drain completes the emitter once any write in progress returns; the servlet container only gives up
+            // on a blocked write after its own timeout, so another thread stands in for the one stuck in it
+            long sendStartedMs = subscriber.sendStartedMs;
+            if (sendStartedMs > 0) {
+                replaceBlockedThread(subscriber, sendStartedMs);
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    // Helper method to add a delivery thread while the given write is still blocked, up to one per allowed connection
+    private synchronized void replaceBlockedThread(Subscriber subscriber, long sendStartedMs) {
+        if (subscriber.sendStartedMs == sendStartedMs && !subscriber.blocked && blockedThreads < maxConnections) {
+            subscriber.blocked = true;
+            blockedThreads++;
+            deliveryExecutor.setMaximumPoolSize(deliveryThreads + blockedThreads);
+            deliveryExecutor.setCorePoolSize(deliveryThreads + blockedThreads);
+        }
+    }
+
+    // Helper method to retire the extra delivery thread once a blocked write has returned
+    private synchronized void releaseBlockedThread(Subscriber subscriber) {
+        if (subscriber.blocked) {
+            subscriber.blocked = false;
+            blockedThreads--;
+            deliveryExecutor.setCorePoolSize(deliveryThreads + blockedThreads);
+            deliveryExecutor.setMaximumPoolSize(deliveryThreads + blockedThreads);
+        }
+    }
+
+    // Helper method to forget a subscriber; returns whether it was still connected
+    private boolean remove(Subscriber subscriber) {
+        return subscribers.remove(subscriber.id, subscriber);
+    }
+
+    // A connected client and the messages waiting to be written to it
+    private class Subscriber {
+        private final long id;
+        private final String username;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long lastProgressMs = System.currentTimeMillis();
+        private volatile long sendStartedMs;
+        private volatile boolean closed;
+        private volatile String closeReason;
+        // Guarded by the service
+        private boolean blocked;
+
+        Subscriber(long id, String username, SseEmitter emitter) {
+            this.id = id;
+            this.username = username;
+            this.emitter = emitter;
+        }
+    }
+
+    // A named event, or a comment line when the name is null; builders are single-use, so one is built per send
+    private static class Message {
+        private static final Message CONNECTED = new Message(null, null, "connected");
+        private static final Message HEARTBEAT = new Message(null, null, "heartbeat");
+
+        private final String id;
+        private final String name;
+        private final String data;
+
+        private Message(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        static Message event(String id, String name, String data) {
+            return new Message(id, name, data);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (this == CONNECTED) {
+                return SseEmitter.event().comment(data).reconnectTime(RECONNECT_DELAY_MS);
+            }
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    /**
+     * Ends the stream of a subscriber that was disconnected for falling behind.
+     * Spring MVC treats the response as unusable and closes it without error handling, as it is already committed.
+     */
+    public static class SubscriberEvictedException extends AsyncRequestNotUsableException {
+        public SubscriberEvictedException(String reason) {
+            super("Live event subscriber disconnected: " + reason);
+        }
+    }
+
+    // Inner class for stream status
+    public static class StreamStatus {
+        private int connections;
+        private int maxConnections;
+        private long published;
+        private long delivered;
+        private long evicted;
+        private long rejected;
+
+        public StreamStatus(int connections, int maxConnections, long published, long delivered, long evicted, long rejected) {
+            this.connections = connections;
+            this.maxConnections = maxConnections;
+            this.published = published;
+            this.delivered = delivered;
+            this.evicted = evicted;
+            this.rejected = rejected;
+        }
+
+        // Getters
+        public int getConnections() { return connections; }
+        public int getMaxConnections() { return maxConnections; }
+        public long getPublished() { return published; }
+        public long getDelivered() { return delivered; }
+        public long getEvicted() { return evicted; }
+        public long getRejected() { return rejected; }
+    }
+}
@@ -0,0 +1,127 @@
+package com.primewraps.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact minimum-transfer settlement strategy for small groups.
+ * The fewest transfers that settle k non-zero balances is k minus the largest number of disjoint
+ * zero-sum subsets they can be partitioned into. That partition is found with a subset-sum DP over
+ * bitmasks (O(2^k * k)), and each subset is then settled greedily with size - 1 transfers.
+ * Groups with more non-zero balances than the configured limit fall back to the greedy strategy.
+ * The DP needs 12 bytes per subset, so the limit itself is capped at {@value #MAX_EXACT_USERS} (about 12 MB).
+ */
+@Component
+public class MinimumTransferSettlementStrategy implements SettlementStrategy {
+
+    public static final String NAME = "minimum";
+
+    public static final int MAX_EXACT_USERS = 20;
+
+    private final int maxExactUsers;
+
+    public MinimumTransferSettlementStrategy(@Value("${settlements.minimum-strategy.max-users:18}") int maxExactUsers) {
+        if (maxExactUsers > MAX_EXACT_USERS) {
+            throw new IllegalArgumentException("settlements.minimum-strategy.max-users must be at most "
+                    + MAX_EXACT_USERS + ", got " + maxExactUsers);
+        }
+        this.maxExactUsers = maxExactUsers;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Transfer> settle(long[] userIds, long[] balanceCents) {
+        long[] remaining = balanceCents.clone();
+        List<Transfer> transfers = new ArrayList<>();
+
+        int[] nonZero = nonZeroIndices(remaining);
+        if (nonZero.length > maxExactUsers) {
+            GreedySettlementStrategy.settleInto(userIds, remaining, nonZero, transfers);
+            return transfers;
+        }
+
+        for (int[] group : zeroSumPartition(remaining, nonZero)) {
+            GreedySettlementStrategy.settleInto(userIds, remaining, group, transfers);
+        }
+        return transfers;
+    }
+
+    /**
+     * Partition the given indices into the maximum number of disjoint zero-sum groups.
+     * Any rounding remainder that does not sum to zero ends up in the last group.
+     */
+    private static List<int[]> zeroSumPartition(long[] balances, int[] indices) {
+        int k = indices.length;
+        int full = (1 << k) - 1;
+        long[] sums = new long[full + 1];
+        int[] groups = new int[full + 1];
+
+        for (int mask = 1; mask <= full; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sums[mask] = sums[mask & (mask - 1)] + balances[indices[lowest]];
+
+            int best = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                best = Math.max(best, groups[mask ^ bit]);
+            }
+            groups[mask] = best + (sums[mask] == 0 ? 1 : 0);
+        }
+
+        // Walk back from the full set; every zero-sum mask on the path closes a group
+        List<int[]> partition = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int mask = full;
+        while (mask != 0) {
+            int expected = groups[mask] - (sums[mask] == 0 ? 1 : 0);
+            if (sums[mask] == 0 && !current.isEmpty()) {
+                partition.add(toArray(current));
+                current.clear();
+            }
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                if (groups[mask ^ bit] == expected) {
+                    current.add(indices[Integer.numberOfTrailingZeros(bit)]);
+                    mask ^= bit;
+                    break;
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            partition.add(toArray(current));
+        }
+        return partition;
+    }
+
+    private static int[] nonZeroIndices(long[] balances) {
+        int count = 0;
+        for (long balance : balances) {
+            if (balance != 0) {
+                count++;
+            }
+        }
+        int[] indices = new int[count];
+        int next = 0;
+        for (int i = 0; i < balances.length; i++) {
+            if (balances[i] != 0) {
+                indices[next++] = i;
+            }
+        }
+        return indices;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,372 @@
+package com.primewraps.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed local storage for expense receipts.
+ * Uploads are streamed through a SHA-256 digest into a temporary file and then moved to a path derived
+ * from the hash, so memory use does not depend on the file size and identical uploads are stored once.
+ * Thumbnails of image receipts are generated in the background on a small bounded pool.
+ */
+@Service
+public class ReceiptStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptStorageService.class);
+
+    public static final String URL_PREFIX = "/api/expenses/receipts/";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int THUMBNAIL_SIZE = 256;
+    private static final Pattern KEY_PATTERN = Pattern.compile("^([0-9a-f]{64})\\.(pdf|jpg|png|gif|webp)$");
+
+    // Extension to content type; the extension is part of the storage key
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "pdf", "application/pdf",
+        "jpg", "image/jpeg",
+        "png", "image/png",
+        "gif", "image/gif",
+        "webp", "image/webp");
+
+    // Formats ImageIO can decode without extra plugins
+    private static final Set<String> THUMBNAIL_FORMATS = Set.of("jpg", "png", "gif");
+
+    @Value("${receipts.storage-dir:./data/receipts}")
+    private String storageDir;
+
+    @Value("${receipts.max-size-bytes:52428800}")
+    private long maxSizeBytes;
+
+    @Value("${receipts.thumbnail-threads:2}")
+    private int thumbnailThreads;
+
+    @Value("${receipts.thumbnail-queue-capacity:100}")
+    private int thumbnailQueueCapacity;
+
+    private Path objectsDir;
+    private Path thumbnailsDir;
+    private Path tempDir;
+    private ThreadPoolExecutor thumbnailExecutor;
+
+    private final Set<String> pendingThumbnails = ConcurrentHashMap.newKeySet();
+    private final AtomicLong thumbnailsGenerated = new AtomicLong();
+    private final AtomicLong thumbnailsDropped = new AtomicLong();
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        Path root = Paths.get(storageDir).toAbsolutePath().normalize();
+        objectsDir = Files.createDirectories(root.resolve("objects"));
+        thumbnailsDir = Files.createDirectories(root.resolve("thumbnails"));
+        tempDir = Files.createDirectories(root.resolve("tmp"));
+
+        // A full queue drops the request instead of blocking the upload; the thumbnail is retried when first requested
+        thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(thumbnailQueueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "receipt-thumbnail");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdownNow();
+    }
+
+    /**
+     * Store an uploaded receipt. The file type is detected from its leading bytes, not from the client's headers.
+     * @return The stored receipt; duplicate is true if identical content was already stored.
+     * @throws IllegalArgumentException If the upload is empty, too large or not a PDF or image.
+     */
+    public StoredReceipt store(InputStream input) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            byte[] header = input.readNBytes(12);
+            if (header.length == 0) {
+                throw new IllegalArgumentException("Receipt file is empty");
+            }
+            String extension = detectExtension(header);
+            if (extension == null) {
+                throw new IllegalArgumentException("Receipt must be a PDF, JPEG, PNG, GIF or WebP file");
+            }
+
+            long size = header.length;
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                digest.update(header);
+                output.write(header);
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSizeBytes) {
+                        throw new IllegalArgumentException("Receipt exceeds the maximum size of " + maxSizeBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String key = sha256 + "." + extension;
+            Path target = objectPath(key);
+            boolean duplicate = Files.exists(target);
+            if (duplicate) {
+                Files.delete(temp);
+            } else {
+                Files.createDirectories(target.getParent());
+                // Concurrent uploads of the same content move identical bytes onto the same path
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                requestThumbnail(key);
+            }
+            return new StoredReceipt(key, URL_PREFIX + key, sha256, CONTENT_TYPES.get(extension), size, duplicate);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Get the file of a stored receipt.
+     * @return The path, or empty if the key is malformed or nothing is stored under it.
+     */
+    public Optional<Path> findReceipt(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = objectPath(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Get the thumbnail of a stored image receipt.
+     * If it has not been generated yet, generation is requested and empty is returned.
+     */
+    public Optional<Path> findThumbnail(String key) {
+        if (findReceipt(key).isEmpty()) {
+            return Optional.empty();
+        }
+        Path path = thumbnailPath(key);
+        if (Files.isRegularFile(path)) {
+            return Optional.of(path);
+        }
+        requestThumbnail(key);
+        return Optional.empty();
+    }
+
+    /**
+     * Get the content type of a stored receipt from its key.
+     */
+    public String contentTypeOf(String key) {
+        return CONTENT_TYPES.get(key.substring(key.lastIndexOf('.') + 1));
+    }
+
+    /**
+     * Get the number of thumbnails generated and dropped because the queue was full.
+     */
+    public ThumbnailStatus getThumbnailStatus() {
+        return new ThumbnailStatus(thumbnailsGenerated.get(), thumbnailsDropped.get(),
+            thumbnailExecutor.getQueue().size(), thumbnailExecutor.getActiveCount());
+    }
+
+    // Helper method to queue thumbnail generation for an image receipt at most once at a time
+    private void requestThumbnail(String key) {
+        if (!THUMBNAIL_FORMATS.contains(key.substring(key.lastIndexOf('.') + 1)) || !pendingThumbnails.add(key)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    generateThumbnail(key);
+                } catch (Exception e) {
+                    logger.warn("Could not generate thumbnail for receipt {}: {}", key, e.getMessage());
+                } finally {
+                    pendingThumbnails.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingThumbnails.remove(key);
+            thumbnailsDropped.incrementAndGet();
+        }
+    }
+
+    // Helper method to decode a subsampled image, so large scans never load at full resolution
+    private void generateThumbnail(String key) throws IOException {
+        Path target = thumbnailPath(key);
+        if (Files.exists(target)) {
+            return;
+        }
+
+        BufferedImage source;
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(objectPath(key).toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (THUMBNAIL_SIZE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        double scale = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tempDir, "thumbnail-", ".part");
+        try {
+            ImageIO.write(thumbnail, "jpg", temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            thumbnailsGenerated.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Helper method to fan files out over subdirectories named after the first byte of the hash
+    private Path objectPath(String key) {
+        return objectsDir.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private Path thumbnailPath(String key) {
+        return thumbnailsDir.resolve(key.substring(0, 2)).resolve(key.substring(0, 64) + ".jpg");
+    }
+
+    // Helper method to recognize the supported formats by their magic numbers
+    private static String detectExtension(byte[] header) {
+        if (startsWith(header, 0, "%PDF-".getBytes())) {
+            return "pdf";
+        }
+        if (startsWith(header, 0, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF })) {
+            return "jpg";
+        }
+        if (startsWith(header, 0, new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' })) {
+            return "png";
+        }
+        if (startsWith(header, 0, "GIF87a".getBytes()) || startsWith(header, 0, "GIF89a".getBytes())) {
+            return "gif";
+        }
+        if (startsWith(header, 0, "RIFF".getBytes()) && startsWith(header, 8, "WEBP".getBytes())) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+        if (data.length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Inner class for a stored receipt
+    public static class StoredReceipt {
+        private String key;
+        private String url;
+        private String sha256;
+        private String contentType;
+        private long size;
+        private boolean duplicate;
+
+        public StoredReceipt(String key, String url, String sha256, String contentType, long size, boolean duplicate) {
+            this.key = key;
+            this.url = url;
+            this.sha256 = sha256;
+            this.contentType = contentType;
+            this.size = size;
+            this.duplicate = duplicate;
+        }
+
+        // Getters
+        public String getKey() { return key; }
+        public String getUrl() { return url; }
+        public String getSha256() { return sha256; }
+        public String getContentType() { return contentType; }
+        public long getSize() { return size; }
+        public boolean isDuplicate() { return duplicate; }
+    }
+
+    // Inner class for thumbnail generation statistics
+    public static class ThumbnailStatus {
+        private long generated;
+        private long dropped;
+        private int queued;
+        private int active;
+
+        public ThumbnailStatus(long generated, long dropped, int queued, int active) {
+            this.generated = generated;
+            this.dropped = dropped;
+            this.queued = queued;
+            this.active = active;
+        }
+
+        // Getters
+        public long getGenerated() { return generated; }
+        public long getDropped() { return dropped; }
+        public int getQueued() { return queued; }
+        public int getActive() { return active; }
+    }
+}
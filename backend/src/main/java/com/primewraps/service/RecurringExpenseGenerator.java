@@ -0,0 +1,261 @@
+package com.primewraps.service;
+
+import com.primewraps.event.FinancialDataChangedEvent;
+import com.primewraps.event.JobCostsChangedEvent;
+import com.primewraps.event.LiveUpdateEvent;
+import com.primewraps.model.Expense;
+import com.primewraps.model.ExpenseSplit;
+import com.primewraps.model.ExpenseStatus;
+import com.primewraps.repository.ExpenseRepository;
+import com.primewraps.util.Recurrence;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically materializes the due occurrences of recurring expenses.
+ * Templates are found through their indexed next due date, occurrences are written with JDBC batches,
+ * and the ledger, rollups and settlements are updated once per run rather than once per occurrence.
+ * Each occurrence records its template and period under a unique key, so a run that catches up on
+ * missed periods, or overlaps another run, never creates the same occurrence twice.
+ */
+@Component
+public class RecurringExpenseGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringExpenseGenerator.class);
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${expenses.recurring.batch-size:200}")
+    private int batchSize;
+
+    @Value("${expenses.recurring.max-catch-up:120}")
+    private int maxCatchUp;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalGenerated = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastTemplatesProcessed;
+    private volatile int lastGenerated;
+    private volatile long lastDurationMs;
+    private volatile long maxDurationMs;
+
+    /**
+     * Generate every occurrence of a recurring expense that is due by now.
+     * A template that fell behind is caught up period by period, up to the configured limit per run.
+     * @return The number of expenses generated.
+     */
+    @Scheduled(initialDelayString = "${expenses.recurring.initial-delay-ms:30000}",
+               fixedDelayString = "${expenses.recurring.interval-ms:3600000}")
+    @Transactional
+    public int generateDueOccurrences() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BigDecimal> ledgerDeltas = new HashMap<>();
+        Map<ExpenseRollupService.RollupKey, ExpenseRollupService.RollupDelta> rollupDeltas = new HashMap<>();
+        Map<Long, BigDecimal> jobCostDeltas = new HashMap<>();
+        Set<Long> jobIds = new HashSet<>();
+        int templatesProcessed = 0;
+        int generated = 0;
+
+        long afterId = 0;
+        List<Expense> templates;
+        while (!(templates = expenseRepository.findDueRecurringTemplates(now, afterId, Limit.of(batchSize))).isEmpty()) {
+            afterId = templates.get(templates.size() - 1).getId();
+            Map<Long, Set<LocalDate>> generatedPeriods = findGeneratedPeriods(templates);
+
+            List<Expense> occurrences = new ArrayList<>();
+            for (Expense template : templates) {
+                occurrences.addAll(dueOccurrencesOf(template, now, generatedPeriods.getOrDefault(template.getId(), Set.of())));
+            }
+
+            for (int from = 0; from < occurrences.size(); from += batchSize) {
+                List<Expense> batch = occurrences.subList(from, Math.min(from + batchSize, occurrences.size()));
+                expenseRepository.batchInsert(batch);
+
+                List<ExpenseSplit> splits = new ArrayList<>();
+                for (Expense occurrence : batch) {
+                    splits.addAll(occurrence.getSplitUsers());
+                    balanceLedgerService.contributionOf(occurrence)
+                            .forEach((userId, delta) -> ledgerDeltas.merge(userId, delta, BigDecimal::add));
+                    expenseRollupService.contributionOf(occurrence)
+                            .forEach((key, delta) -> rollupDeltas.merge(key, delta, ExpenseRollupService.RollupDelta::plus));
+                    JobService.costContributionOf(occurrence)
+                            .forEach((jobId, delta) -> jobCostDeltas.merge(jobId, delta, BigDecimal::add));
+                    jobIds.add(occurrence.getJob() != null ? occurrence.getJob().getId() : null);
+                }
+                expenseRepository.batchInsertSplits(splits);
+            }
+
+            templatesProcessed += templates.size();
+            generated += occurrences.size();
+
+            // Write the advanced due dates and keep the persistence context from growing across pages
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        if (generated > 0) {
+            boolean balancesChanged = balanceLedgerService.applyDeltas(ledgerDeltas);
+            expenseRollupService.applyDeltas(rollupDeltas);
+            // One recompute for the whole run, however many occurrences were generated
+            eventPublisher.publishEvent(FinancialDataChangedEvent.forJobs(balancesChanged, jobIds));
+            eventPublisher.publishEvent(new JobCostsChangedEvent(jobCostDeltas));
+            eventPublisher.publishEvent(LiveUpdateEvent.expensesCreated(generated, jobIds));
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        runs.incrementAndGet();
+        totalGenerated.addAndGet(generated);
+        lastRunAt = now;
+        lastTemplatesProcessed = templatesProcessed;
+        lastGenerated = generated;
+        lastDurationMs = duration;
+        maxDurationMs = Math.max(maxDurationMs, duration);
+        logger.info("Recurring generator processed {} templates and generated {} expenses in {} ms",
+                templatesProcessed, generated, duration);
+        return generated;
+    }
+
+    /**
+     * Get statistics about completed runs.
+     */
+    public GeneratorStatus getStatus() {
+        return new GeneratorStatus(runs.get(), totalGenerated.get(), lastRunAt, lastTemplatesProcessed, lastGenerated,
+                lastDurationMs, maxDurationMs);
+    }
+
+    // Helper method to load the periods already generated for a page of templates with one query
+    private Map<Long, Set<LocalDate>> findGeneratedPeriods(List<Expense> templates) {
+        List<Long> templateIds = new ArrayList<>(templates.size());
+        LocalDate fromPeriod = null;
+        for (Expense template : templates) {
+            templateIds.add(template.getId());
+            LocalDate period = Recurrence.periodOf(template.getNextDueDate());
+            if (fromPeriod == null || period.isBefore(fromPeriod)) {
+                fromPeriod = period;
+            }
+        }
+
+        Map<Long, Set<LocalDate>> generatedPeriods = new HashMap<>();
+        for (Object[] row : expenseRepository.findGeneratedPeriods(templateIds, fromPeriod)) {
+            generatedPeriods.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((LocalDate) row[1]);
+        }
+        return generatedPeriods;
+    }
+
+    // Helper method to build a template's due occurrences and advance its next due date past them
+    private List<Expense> dueOccurrencesOf(Expense template, LocalDateTime now, Set<LocalDate> generatedPeriods) {
+        List<Expense> occurrences = new ArrayList<>();
+        Integer monthsPerPeriod;
+        try {
+            monthsPerPeriod = Recurrence.monthsPerPeriod(template.getRecurringFrequency());
+        } catch (IllegalArgumentException e) {
+            monthsPerPeriod = null;
+        }
+        if (monthsPerPeriod == null) {
+            // Rows written before frequencies were validated cannot be scheduled; stop picking them up
+            logger.warn("Recurring expense {} has unsupported frequency '{}', unscheduling it",
+                    template.getId(), template.getRecurringFrequency());
+            template.setNextDueDate(null);
+            return occurrences;
+        }
+
+        LocalDateTime dueDate = template.getNextDueDate();
+        for (int periods = 0; !dueDate.isAfter(now) && periods < maxCatchUp; periods++) {
+            LocalDate period = Recurrence.periodOf(dueDate);
+            if (!generatedPeriods.contains(period)) {
+                occurrences.add(occurrenceOf(template, dueDate, period));
+            }
+            dueDate = Recurrence.firstDueOnOrAfter(template.getDate(), monthsPerPeriod, period.plusMonths(1).atStartOfDay());
+        }
+        template.setNextDueDate(dueDate);
+        return occurrences;
+    }
+
+    // Helper method to copy a template into a new pending expense for one period
+    private Expense occurrenceOf(Expense template, LocalDateTime dueDate, LocalDate period) {
+        Expense occurrence = new Expense();
+        occurrence.setDescription(template.getDescription());
+        occurrence.setAmount(template.getAmount());
+        occurrence.setCategory(template.getCategory());
+        occurrence.setStatus(ExpenseStatus.PENDING);
+        occurrence.setDate(dueDate);
+        occurrence.setNotes(template.getNotes());
+        occurrence.setTaxDeductible(template.isTaxDeductible());
+        occurrence.setPaidByUser(template.getPaidByUser());
+        occurrence.setCreatedBy(template.getCreatedBy());
+        occurrence.setJob(template.getJob());
+        occurrence.setSharedExpense(template.isSharedExpense());
+        occurrence.setSplitCount(template.getSplitCount());
+        occurrence.setRecurrenceTemplateId(template.getId());
+        occurrence.setRecurrencePeriod(period);
+        for (ExpenseSplit split : template.getSplitUsers()) {
+            occurrence.getSplitUsers().add(new ExpenseSplit(occurrence, split.getUser()));
+        }
+        return occurrence;
+    }
+
+    // Inner class for generator statistics
+    public static class GeneratorStatus {
+        private long runs;
+        private long totalGenerated;
+        private LocalDateTime lastRunAt;
+        private int lastTemplatesProcessed;
+        private int lastGenerated;
+        private long lastDurationMs;
+        private long maxDurationMs;
+
+        public GeneratorStatus(long runs, long totalGenerated, LocalDateTime lastRunAt, int lastTemplatesProcessed,
+                               int lastGenerated, long lastDurationMs, long maxDurationMs) {
+            this.runs = runs;
+            this.totalGenerated = totalGenerated;
+            this.lastRunAt = lastRunAt;
+            this.lastTemplatesProcessed = lastTemplatesProcessed;
+            this.lastGenerated = lastGenerated;
+            this.lastDurationMs = lastDurationMs;
+            this.maxDurationMs = maxDurationMs;
+        }
+
+        // Getters
+        public long getRuns() { return runs; }
+        public long getTotalGenerated() { return totalGenerated; }
+        public LocalDateTime getLastRunAt() { return lastRunAt; }
+        public int getLastTemplatesProcessed() { return lastTemplatesProcessed; }
+        public int getLastGenerated() { return lastGenerated; }
+        public long getLastDurationMs() { return lastDurationMs; }
+        public long getMaxDurationMs() { return maxDurationMs; }
+    }
+}
@@ -0,0 +1,105 @@
+package com.primewraps.service;
+
+import com.primewraps.event.FinancialDataChangedEvent;
+import com.primewraps.repository.SettlementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically moves PENDING settlements past their due date to OVERDUE with a single bulk update,
+ * so overdue listings and counts are plain status lookups instead of date comparisons on every read.
+ */
+@Component
+public class SettlementOverdueSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementOverdueSweeper.class);
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalRowsMoved = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastRowsMoved;
+    private volatile long lastDurationMs;
+    private volatile long maxDurationMs;
+
+    /**
+     * Mark every PENDING settlement whose due date has passed as OVERDUE.
+     * @return The number of settlements moved.
+     */
+    @Scheduled(initialDelayString = "${settlements.overdue-sweep.initial-delay-ms:60000}",
+               fixedDelayString = "${settlements.overdue-sweep.interval-ms:900000}")
+    @Transactional
+    public int sweep() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        int moved = settlementRepository.markOverdue(now, changeSequence.next());
+        if (moved > 0) {
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(false));
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        runs.incrementAndGet();
+        totalRowsMoved.addAndGet(moved);
+        lastRunAt = now;
+        lastRowsMoved = moved;
+        lastDurationMs = duration;
+        maxDurationMs = Math.max(maxDurationMs, duration);
+        if (moved > 0) {
+            logger.info("Overdue sweep moved {} settlements to OVERDUE in {} ms", moved, duration);
+        } else {
+            logger.debug("Overdue sweep found no settlements to move in {} ms", duration);
+        }
+        return moved;
+    }
+
+    /**
+     * Get statistics about completed sweeps.
+     */
+    public SweepStatus getStatus() {
+        return new SweepStatus(runs.get(), totalRowsMoved.get(), lastRunAt, lastRowsMoved, lastDurationMs, maxDurationMs);
+    }
+
+    // Inner class for sweep statistics
+    public static class SweepStatus {
+        private long runs;
+        private long totalRowsMoved;
+        private LocalDateTime lastRunAt;
+        private int lastRowsMoved;
+        private long lastDurationMs;
+        private long maxDurationMs;
+
+        public SweepStatus(long runs, long totalRowsMoved, LocalDateTime lastRunAt, int lastRowsMoved,
+                           long lastDurationMs, long maxDurationMs) {
+            this.runs = runs;
+            this.totalRowsMoved = totalRowsMoved;
+            this.lastRunAt = lastRunAt;
+            this.lastRowsMoved = lastRowsMoved;
+            this.lastDurationMs = lastDurationMs;
+            this.maxDurationMs = maxDurationMs;
+        }
+
+        // Getters
+        public long getRuns() { return runs; }
+        public long getTotalRowsMoved() { return totalRowsMoved; }
+        public LocalDateTime getLastRunAt() { return lastRunAt; }
+        public int getLastRowsMoved() { return lastRowsMoved; }
+        public long getLastDurationMs() { return lastDurationMs; }
+        public long getMaxDurationMs() { return maxDurationMs; }
+    }
+}
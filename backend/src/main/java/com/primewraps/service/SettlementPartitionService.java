@@ -0,0 +1,178 @@
+package com.primewraps.service;
+
+import com.primewraps.repository.ExpenseRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Splits settlement computation into independent partitions when settlements.partition-mode is "job".
+ * Shared expenses and payments are grouped by job; records without a job are further split into the
+ * connected components of the debt graph (users linked by a shared expense or a payment), since no
+ * transfer is ever needed between two components. Partitions are settled in parallel on a fork-join pool.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SettlementPartitionService {
+
+    public static final String MODE_GLOBAL = "global";
+    public static final String MODE_JOB = "job";
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private final String partitionMode;
+    private final ForkJoinPool pool;
+
+    public SettlementPartitionService(@Value("${settlements.partition-mode:" + MODE_GLOBAL + "}") String partitionMode,
+                                      @Value("${settlements.partition-parallelism:0}") int parallelism) {
+        this.partitionMode = partitionMode;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Whether settlements are computed per partition rather than as one global pool.
+     */
+    public boolean isEnabled() {
+        return MODE_JOB.equalsIgnoreCase(partitionMode);
+    }
+
+    /**
+     * Load every partition: one per job plus one per connected component of unassigned records.
+     */
+    public List<BalancePartition> loadAll() {
+        Map<Long, Map<Long, BigDecimal>> balancesByJob = new HashMap<>();
+        Map<Long, BigDecimal> unassigned = new HashMap<>();
+        for (Object[] row : expenseRepository.aggregateNetBalancesByJob()) {
+            Map<Long, BigDecimal> balances = row[0] == null
+                ? unassigned
+                : balancesByJob.computeIfAbsent(((Number) row[0]).longValue(), jobId -> new HashMap<>());
+            balances.put(((Number) row[1]).longValue(), toBalance(row[2]));
+        }
+
+        List<BalancePartition> partitions = new ArrayList<>();
+        balancesByJob.forEach((jobId, balances) -> partitions.add(new BalancePartition(jobId, balances)));
+        partitions.addAll(splitIntoComponents(unassigned));
+        return partitions;
+    }
+
+    /**
+     * Load the partition of a single job.
+     */
+    public BalancePartition loadJob(Long jobId) {
+        return new BalancePartition(jobId, toBalances(expenseRepository.aggregateNetBalancesForJob(jobId)));
+    }
+
+    /**
+     * Load the partitions of records that are not assigned to a job, one per connected component.
+     */
+    public List<BalancePartition> loadUnassigned() {
+        return splitIntoComponents(toBalances(expenseRepository.aggregateUnassignedNetBalances()));
+    }
+
+    /**
+     * Settle every partition in parallel and concatenate the results in partition order.
+     */
+    public <T> List<T> settleInParallel(List<BalancePartition> partitions, Function<BalancePartition, List<T>> settle) {
+        List<ForkJoinTask<List<T>>> tasks = new ArrayList<>(partitions.size());
+        for (BalancePartition partition : partitions) {
+            tasks.add(pool.submit(() -> settle.apply(partition)));
+        }
+        List<T> results = new ArrayList<>();
+        for (ForkJoinTask<List<T>> task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Helper method to split unassigned balances into the connected components of the debt graph
+    private List<BalancePartition> splitIntoComponents(Map<Long, BigDecimal> balances) {
+        if (balances.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Long> parents = new HashMap<>();
+        for (Object[] edge : expenseRepository.findUnassignedDebtEdges()) {
+            union(parents, ((Number) edge[0]).longValue(), ((Number) edge[1]).longValue());
+        }
+
+        Map<Long, Map<Long, BigDecimal>> components = new HashMap<>();
+        balances.forEach((userId, balance) -> {
+            if (balance.signum() != 0) {
+                components.computeIfAbsent(find(parents, userId), root -> new HashMap<>()).put(userId, balance);
+            }
+        });
+
+        List<BalancePartition> partitions = new ArrayList<>();
+        for (Map<Long, BigDecimal> component : components.values()) {
+            partitions.add(new BalancePartition(null, component));
+        }
+        return partitions;
+    }
+
+    // Union-find over user IDs with path halving
+    private static long find(Map<Long, Long> parents, long userId) {
+        long current = userId;
+        Long parent;
+        while ((parent = parents.get(current)) != null && parent != current) {
+            Long grandparent = parents.get(parent);
+            if (grandparent != null) {
+                parents.put(current, grandparent);
+            }
+            current = parent;
+        }
+        return current;
+    }
+
+    private static void union(Map<Long, Long> parents, long a, long b) {
+        long rootA = find(parents, a);
+        long rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents.put(rootA, rootB);
+        }
+    }
+
+    private static Map<Long, BigDecimal> toBalances(List<Object[]> rows) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Object[] row : rows) {
+            balances.put(((Number) row[0]).longValue(), toBalance(row[1]));
+        }
+        return balances;
+    }
+
+    private static BigDecimal toBalance(Object value) {
+        BigDecimal balance = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        return balance.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Balances of one settlement partition. A null job ID marks a component of unassigned records.
+     */
+    public static class BalancePartition {
+        private final Long jobId;
+        private final Map<Long, BigDecimal> balances;
+
+        public BalancePartition(Long jobId, Map<Long, BigDecimal> balances) {
+            this.jobId = jobId;
+            this.balances = balances;
+        }
+
+        // Getters
+        public Long getJobId() { return jobId; }
+        public Map<Long, BigDecimal> getBalances() { return balances; }
+    }
+}
@@ -0,0 +1,188 @@
+package com.primewraps.service;
+
+import com.primewraps.event.FinancialDataChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recomputes persisted settlements in the background after balances change.
+ * Changes are only marked dirty once their transaction commits, and bursts of changes within the
+ * debounce window are coalesced into a single recompute on a single worker thread.
+ * When settlements are partitioned, only the partitions touched since the last run are recomputed.
+ */
+@Component
+public class SettlementRecomputeScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementRecomputeScheduler.class);
+
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Value("${settlements.recompute.debounce-ms:500}")
+    private long debounceMs;
+
+    @Value("${settlements.recompute.max-delay-ms:5000}")
+    private long maxDelayMs;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "settlement-recompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong requestedVersion = new AtomicLong();
+    private final AtomicLong computedVersion = new AtomicLong();
+    private volatile LocalDateTime lastComputedAt;
+    private volatile long lastDurationMs;
+
+    // Guarded by this; firstDirtyAtMs is 0 while no request is waiting for a run
+    private ScheduledFuture<?> pendingRun;
+    private long firstDirtyAtMs;
+    private boolean allPartitionsDirty;
+    private boolean unassignedDirty;
+    private Set<Long> dirtyJobIds = new HashSet<>();
+
+    /**
+     * Mark settlements dirty once the publishing transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        if (!event.isBalancesChanged()) {
+            return;
+        }
+        if (event.isPartitionsKnown()) {
+            markDirty(event.getJobIds(), event.isUnassignedChanged());
+        } else {
+            markDirty();
+        }
+    }
+
+    /**
+     * Request a recompute of every partition. Repeated requests within the debounce window postpone the run,
+     * but never beyond the maximum delay measured from the first outstanding request.
+     */
+    public synchronized void markDirty() {
+        allPartitionsDirty = true;
+        scheduleRun();
+    }
+
+    /**
+     * Request a recompute of the given job partitions and, optionally, of records without a job.
+     */
+    public synchronized void markDirty(Set<Long> jobIds, boolean unassigned) {
+        dirtyJobIds.addAll(jobIds);
+        unassignedDirty |= unassigned;
+        scheduleRun();
+    }
+
+    // Guarded by this
+    private void scheduleRun() {
+        requestedVersion.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (firstDirtyAtMs == 0) {
+            firstDirtyAtMs = now;
+        }
+        // A run that has already started cannot be postponed; it picks up this request or leaves it to the next run
+        if (pendingRun != null && !pendingRun.isDone()) {
+            pendingRun.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(debounceMs, firstDirtyAtMs + maxDelayMs - now));
+        pendingRun = executor.schedule(this::recompute, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the version and timestamp of the last completed recompute.
+     */
+    public RecomputeStatus getStatus() {
+        return new RecomputeStatus(requestedVersion.get(), computedVersion.get(), lastComputedAt, lastDurationMs);
+    }
+
+    private void recompute() {
+        long targetVersion;
+        boolean all;
+        boolean unassigned;
+        Set<Long> jobIds;
+        synchronized (this) {
+            // Requests from here on wait for the next run, so they start a new maximum delay window
+            firstDirtyAtMs = 0;
+            targetVersion = requestedVersion.get();
+            if (targetVersion == computedVersion.get()) {
+                return;
+            }
+            all = allPartitionsDirty || !settlementService.isPartitioned();
+            unassigned = unassignedDirty;
+            jobIds = dirtyJobIds;
+            allPartitionsDirty = false;
+            unassignedDirty = false;
+            dirtyJobIds = new HashSet<>();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            if (all) {
+                settlementService.updateAndPersistSettlements();
+            } else {
+                settlementService.updateAndPersistSettlements(jobIds, unassigned);
+            }
+            lastDurationMs = System.currentTimeMillis() - start;
+            lastComputedAt = LocalDateTime.now();
+            computedVersion.set(targetVersion);
+            logger.debug("Recomputed settlements for version {} in {} ms", targetVersion, lastDurationMs);
+        } catch (Exception e) {
+            logger.error("Settlement recompute for version {} failed, retrying in {} ms", targetVersion, RETRY_DELAY_MS, e);
+            synchronized (this) {
+                // Keep the failed partitions dirty for the next run
+                allPartitionsDirty |= all;
+                unassignedDirty |= unassigned;
+                dirtyJobIds.addAll(jobIds);
+                // A newer request has already scheduled its own run
+                if (requestedVersion.get() == targetVersion) {
+                    pendingRun = executor.schedule(this::recompute, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Inner class for recompute status
+    public static class RecomputeStatus {
+        private long requestedVersion;
+        private long computedVersion;
+        private LocalDateTime lastComputedAt;
+        private long lastDurationMs;
+
+        public RecomputeStatus(long requestedVersion, long computedVersion, LocalDateTime lastComputedAt, long lastDurationMs) {
+            this.requestedVersion = requestedVersion;
+            this.computedVersion = computedVersion;
+            this.lastComputedAt = lastComputedAt;
+            this.lastDurationMs = lastDurationMs;
+        }
+
+        // Getters
+        public long getRequestedVersion() { return requestedVersion; }
+        public long getComputedVersion() { return computedVersion; }
+        public LocalDateTime getLastComputedAt() { return lastComputedAt; }
+        public long getLastDurationMs() { return lastDurationMs; }
+        public boolean isDirty() { return requestedVersion != computedVersion; }
+    }
+}
@@ -1,34 +1,100 @@
 package com.primewraps.service;
 
 import com.primewraps.model.*;
-import com.primewraps.repository.SettlementRepository;
 import com.primewraps.repository.ExpenseRepository;
+import com.primewraps.repository.JobRepository;
+import com.primewraps.repository.SettlementRepository;
 import com.primewraps.repository.UserRepository;
 import com.primewraps.dto.PartialPaymentRequest;
-
-import jakarta.transaction.Transactional;
-
+import com.primewraps.dto.SettlementSimulationRequest;
+import com.primewraps.dto.SettlementSimulationRequest.SimulatedExpense;
+import com.primewraps.dto.SettlementSimulationRequest.SimulatedPayment;
+import com.primewraps.event.FinancialDataChangedEvent;
+import com.primewraps.event.LiveUpdateEvent;
+import com.primewraps.service.SettlementPartitionService.BalancePartition;
+import com.primewraps.util.CachedValue;
+import com.primewraps.util.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
 import org.springframework.stereotype.Service;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class SettlementService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+
+    // Settlements that are still owed; OVERDUE ones are PENDING settlements past their due date
+    public static final Set<SettlementStatus> OPEN_STATUSES = Collections.unmodifiableSet(EnumSet.of(SettlementStatus.PENDING, SettlementStatus.OVERDUE));
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private SettlementRepository settlementRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private SettlementPartitionService settlementPartitionService;
+
+    @Autowired
+    private List<SettlementStrategy> settlementStrategies;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FinancialDataVersion financialDataVersion;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    // Last calculation result per strategy, valid only for the financial data version it was computed from
+    private final Map<String, CachedCalculation> calculationCache = new ConcurrentHashMap<>();
+
+    @Value("${settlements.strategy:" + GreedySettlementStrategy.NAME + "}")
+    private String defaultStrategy;
+
+    @Value("${summaries.cache-ttl-ms:5000}")
+    private long summaryCacheTtlMs;
+
+    private CachedValue<SettlementSummary> summaryCache;
+
+    @PostConstruct
+    public void init() {
+        summaryCache = new CachedValue<>(summaryCacheTtlMs);
+    }
 
     public ResponseEntity<?> createSettlement(Settlement settlement) {
         try {
@@ -47,6 +113,7 @@ public class SettlementService {
             settlement.setDueDate(LocalDateTime.now().plusDays(30)); // Default 30 days
 
             Settlement savedSettlement = settlementRepository.save(settlement);
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(false));
             return ResponseEntity.ok(savedSettlement);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error creating settlement: " + e.getMessage());
@@ -75,9 +142,11 @@ public class SettlementService {
         }
     }
 
+    @Transactional
     public Settlement updateSettlement(Long id, Settlement settlementDetails) {
         Settlement settlement = settlementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Settlement not found"));
+        Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(settlement);
 
         // Validate amount before updating
         if (settlementDetails.getAmount() != null) {
@@ -87,7 +156,10 @@ public class SettlementService {
             settlement.setAmount(settlementDetails.getAmount());
         }
         
-        return settlementRepository.save(settlement);
+        Settlement savedSettlement = settlementRepository.save(settlement);
+        boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, balanceLedgerService.contributionOf(savedSettlement));
+        eventPublisher.publishEvent(changedEvent(balancesChanged, savedSettlement));
+        return savedSettlement;
     }
 
     public ResponseEntity<?> deleteSettlement(Long id) {
@@ -99,18 +171,20 @@ public class SettlementService {
 
             Settlement settlement = settlementOpt.get();
             
-            // Only allow deletion of pending settlements
-            if (settlement.getStatus() != SettlementStatus.PENDING) {
+            // Only allow deletion of unpaid settlements
+            if (!OPEN_STATUSES.contains(settlement.getStatus())) {
                 return ResponseEntity.badRequest().body("Cannot delete non-pending settlements");
             }
 
             settlementRepository.deleteById(id);
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(false));
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error deleting settlement: " + e.getMessage());
         }
     }
 
+    @Transactional
     public ResponseEntity<?> updateSettlementStatus(Long id, SettlementStatus status) {
         try {
             Optional<Settlement> settlementOpt = settlementRepository.findById(id);
@@ -119,6 +193,8 @@ public class SettlementService {
             }
 
             Settlement settlement = settlementOpt.get();
+            Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(settlement);
+            boolean settledInPlace = OPEN_STATUSES.contains(settlement.getStatus()) && status == SettlementStatus.PAID;
             settlement.setStatus(status);
             
             // Update paid date if status is PAID
@@ -127,16 +203,21 @@ public class SettlementService {
             }
 
             Settlement updatedSettlement = settlementRepository.save(settlement);
+            boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, balanceLedgerService.contributionOf(updatedSettlement));
+            eventPublisher.publishEvent(changedEvent(balancesChanged && !settledInPlace, updatedSettlement));
             return ResponseEntity.ok(updatedSettlement);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error updating settlement status: " + e.getMessage());
         }
     }
 
+    @Transactional
     public ResponseEntity<?> updateSettlementStatusWithPayment(Long id, SettlementStatus status, String paymentMethod, String notes) {
         try {
             Settlement settlement = settlementRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Settlement not found"));
+            Map<Long, BigDecimal> previousContribution = balanceLedgerService.contributionOf(settlement);
+            boolean settledInPlace = OPEN_STATUSES.contains(settlement.getStatus()) && status == SettlementStatus.PAID;
 
             settlement.setStatus(status);
             if (status == SettlementStatus.PAID) {
@@ -146,12 +227,11 @@ public class SettlementService {
             }
 
             Settlement updatedSettlement = settlementRepository.save(settlement);
+            boolean balancesChanged = balanceLedgerService.applyChange(previousContribution, balanceLedgerService.contributionOf(updatedSettlement));
             
-            // After marking a settlement as paid, recalculate all settlements to update balances
-            if (status == SettlementStatus.PAID) {
-                System.out.println("Settlement marked as paid, recalculating settlements...");
-                updateAndPersistSettlements();
-            }
+            // Paying an unpaid settlement in full moves both users' balances by exactly its amount, so the remaining
+            // unpaid settlements still match the balances; other transitions are recalculated in the background
+            eventPublisher.publishEvent(changedEvent(balancesChanged && !settledInPlace, updatedSettlement));
             
             return ResponseEntity.ok(updatedSettlement);
         } catch (Exception e) {
@@ -161,23 +241,73 @@ public class SettlementService {
 
 
 
+    /**
+     * Apply a payment toward an unpaid settlement in one transaction.
+     * A partial payment reduces the original settlement by the amount paid and appends a PAID record for it;
+     * paying the full amount marks the original settlement PAID. Only the paid pair's settlement and the two
+     * users' balances change, so no settlement recompute is needed.
+     * @return The PAID settlement recording the payment.
+     */
+    @Transactional
     public Settlement createPartialPaymentRecord(PartialPaymentRequest request) {
-        // Get the original settlement to copy user details
-        Settlement originalSettlement = settlementRepository.findById(request.getOriginalSettlementId())
+        BigDecimal amountPaid = request.getAmountPaid();
+        if (amountPaid == null || amountPaid.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount paid must be greater than zero");
+        }
+
+        // Lock the original settlement so concurrent payments toward it are applied one after another
+        Settlement originalSettlement = settlementRepository.findByIdForUpdate(request.getOriginalSettlementId())
                 .orElseThrow(() -> new RuntimeException("Original settlement not found"));
+        if (!OPEN_STATUSES.contains(originalSettlement.getStatus())) {
+            throw new IllegalArgumentException("Only pending or overdue settlements can be paid");
+        }
+        int comparison = amountPaid.compareTo(originalSettlement.getAmount());
+        if (comparison > 0) {
+            throw new IllegalArgumentException("Amount paid exceeds the amount owed (" + originalSettlement.getAmount() + ")");
+        }
 
-        // Create a new settlement record for the partial payment
-        Settlement paymentRecord = new Settlement();
-        paymentRecord.setFromUser(originalSettlement.getFromUser());
-        paymentRecord.setToUser(originalSettlement.getToUser());
-        paymentRecord.setAmount(request.getAmountPaid());
+        Settlement paymentRecord;
+        if (comparison == 0) {
+            // Paying the full amount closes the original settlement
+            paymentRecord = originalSettlement;
+        } else {
+            // Reduce the original settlement to the remaining balance and record the paid portion separately
+            originalSettlement.setAmount(originalSettlement.getAmount().subtract(amountPaid));
+            paymentRecord = new Settlement();
+            paymentRecord.setFromUser(originalSettlement.getFromUser());
+            paymentRecord.setToUser(originalSettlement.getToUser());
+            paymentRecord.setRelatedJob(originalSettlement.getRelatedJob());
+            paymentRecord.setAmount(amountPaid);
+            paymentRecord.setDueDate(originalSettlement.getDueDate());
+        }
         paymentRecord.setStatus(SettlementStatus.PAID);
-        paymentRecord.setDueDate(originalSettlement.getDueDate());
         paymentRecord.setPaidDate(LocalDateTime.now());
         paymentRecord.setPaymentMethod(request.getPaymentMethod());
         paymentRecord.setNotes(request.getNotes());
 
-        return settlementRepository.save(paymentRecord);
+        Settlement savedRecord = settlementRepository.save(paymentRecord);
+        balanceLedgerService.applyChange(Collections.emptyMap(), balanceLedgerService.contributionOf(savedRecord));
+
+        // The pair's unpaid settlement was adjusted in place, so the remaining settlements still match the balances
+        eventPublisher.publishEvent(changedEvent(false, savedRecord));
+        return savedRecord;
+    }
+
+    /**
+     * Get the payments made between two users in either direction, newest first.
+     */
+    public ResponseEntity<?> getPaymentHistory(Long userId, Long otherUserId, int page, int size) {
+        try {
+            if (page < 0 || size < 1) {
+                return ResponseEntity.badRequest().body("Page must be zero or greater and size must be positive");
+            }
+            Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "paidDate", "id"));
+            Page<Settlement> payments = settlementRepository.findPaymentsBetween(userId, otherUserId, pageable);
+            return ResponseEntity.ok(new PagedModel<>(payments));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error fetching payment history: " + e.getMessage());
+        }
     }
 
     public ResponseEntity<?> getSettlementsByStatus(SettlementStatus status) {
@@ -200,7 +330,8 @@ public class SettlementService {
 
     public ResponseEntity<?> getPendingSettlements() {
         try {
-            List<Settlement> settlements = settlementRepository.findByStatus(SettlementStatus.PENDING);
+            // Overdue settlements are still awaiting payment, so they are listed with the pending ones
+            List<Settlement> settlements = settlementRepository.findByStatusIn(OPEN_STATUSES);
             return ResponseEntity.ok(settlements);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error fetching pending settlements: " + e.getMessage());
@@ -217,129 +348,237 @@ public class SettlementService {
     }
 
     public ResponseEntity<?> calculateSettlements() {
+        return calculateSettlements(null);
+    }
+
+    /**
+     * Calculate balances and settlement suggestions using the named strategy (or the configured default).
+     * Results are cached per financial data version and returned with a matching ETag,
+     * so conditional requests with If-None-Match are answered with 304 Not Modified.
+     */
+    public ResponseEntity<?> calculateSettlements(String strategyName) {
         try {
-            List<User> users = userRepository.findAll();
-            Map<Long, BigDecimal> userBalances = new HashMap<>();
-            
-            // Initialize balances
-            for (User user : users) {
-                userBalances.put(user.getId(), BigDecimal.ZERO);
+            SettlementStrategy strategy = resolveStrategy(strategyName);
+
+            // Read the version before computing so a concurrent change can only make the entry stale, never wrong
+            long version = financialDataVersion.current();
+            CachedCalculation cached = calculationCache.get(strategy.getName());
+            SettlementCalculationResult result;
+            if (cached != null && cached.version == version) {
+                result = cached.result;
+            } else {
+                result = computeSettlements(strategy);
+                calculationCache.put(strategy.getName(), new CachedCalculation(version, result));
+            }
+
+            // no-cache (rather than Spring Security's default no-store) lets browsers revalidate with the ETag
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(financialDataVersion.etag(version, strategy.getName()))
+                .body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error calculating settlements: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Simulate hypothetical expense additions, expense removals and payments on top of the current balances.
+     * Nothing is persisted; the result shows the balances and settlement suggestions as they would be.
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> simulateSettlements(SettlementSimulationRequest request) {
+        try {
+            SettlementStrategy strategy = resolveStrategy(request.getStrategy());
+            Map<Long, BigDecimal> balanceChanges = new HashMap<>();
+
+            for (SimulatedExpense expense : orEmpty(request.getAddExpenses())) {
+                requirePositive(expense.getAmount(), "Expense amount");
+                if (expense.getPaidByUserId() == null) {
+                    throw new IllegalArgumentException("Every simulated expense needs a paidByUserId");
+                }
+                // Same rules as creating a real shared expense
+                List<Long> splitUserIds = orEmpty(expense.getSplitUserIds());
+                if (splitUserIds.contains(expense.getPaidByUserId())) {
+                    throw new IllegalArgumentException("Payer cannot be included in split users");
+                }
+                if (new HashSet<>(splitUserIds).size() != splitUserIds.size()) {
+                    throw new IllegalArgumentException("Duplicate split users are not allowed");
+                }
+                balanceLedgerService.contributionOf(expense.getAmount(), expense.getPaidByUserId(), splitUserIds)
+                    .forEach((userId, amount) -> balanceChanges.merge(userId, amount, BigDecimal::add));
             }
 
-            // Calculate balances from shared expenses (include PENDING expenses too)
-            List<Expense> sharedExpenses = expenseRepository.findByIsSharedExpenseTrue();
-            for (Expense expense : sharedExpenses) {
-                // Include both PENDING and APPROVED expenses in settlement calculations
-                if (expense.getStatus() == ExpenseStatus.APPROVED || expense.getStatus() == ExpenseStatus.PENDING) {
-                    BigDecimal amount = expense.getAmount();
-                    Long payerId = expense.getPaidByUser().getId();
-                    
-                    // Add to payer's balance (they paid)
-                    userBalances.put(payerId, userBalances.get(payerId).add(amount));
-                    
-                    // Subtract from other team members' balances (they owe)
-                    if (expense.getSplitCount() > 1) {
-                        BigDecimal perPersonAmount = amount.divide(BigDecimal.valueOf(expense.getSplitCount()), 2, RoundingMode.HALF_UP);
-                        
-                        // Subtract the payer's own share from their balance
-                        userBalances.put(payerId, userBalances.get(payerId).subtract(perPersonAmount));
-                        
-                        // Subtract from the users who are actually in the split
-                        for (ExpenseSplit split : expense.getSplitUsers()) {
-                            userBalances.put(split.getUser().getId(), userBalances.get(split.getUser().getId()).subtract(perPersonAmount));
-                        }
-                    }
+            Set<Long> removedIds = new HashSet<>(orEmpty(request.getRemoveExpenseIds()));
+            if (!removedIds.isEmpty()) {
+                List<Expense> removedExpenses = expenseRepository.findAllById(removedIds);
+                for (Expense expense : removedExpenses) {
+                    removedIds.remove(expense.getId());
+                    balanceLedgerService.contributionOf(expense)
+                        .forEach((userId, amount) -> balanceChanges.merge(userId, amount.negate(), BigDecimal::add));
+                }
+                if (!removedIds.isEmpty()) {
+                    throw new IllegalArgumentException("Expenses not found: " + removedIds);
                 }
             }
 
-            // Subtract paid settlements from balances (account for payments that have been made)
-            List<Settlement> paidSettlements = settlementRepository.findByStatus(SettlementStatus.PAID);
-            for (Settlement settlement : paidSettlements) {
-                Long fromUserId = settlement.getFromUser().getId();
-                Long toUserId = settlement.getToUser().getId();
-                BigDecimal amount = settlement.getAmount();
-                
-                // The person who paid (fromUser) gets credited (reduces their positive balance or increases their negative balance)
-                userBalances.put(fromUserId, userBalances.get(fromUserId).subtract(amount));
-                
-                // The person who received payment (toUser) gets debited (reduces their negative balance or increases their positive balance)
-                userBalances.put(toUserId, userBalances.get(toUserId).add(amount));
+            for (SimulatedPayment payment : orEmpty(request.getPayments())) {
+                requirePositive(payment.getAmount(), "Payment amount");
+                if (payment.getFromUserId() == null || payment.getToUserId() == null) {
+                    throw new IllegalArgumentException("Every simulated payment needs a fromUserId and a toUserId");
+                }
+                balanceChanges.merge(payment.getFromUserId(), payment.getAmount(), BigDecimal::add);
+                balanceChanges.merge(payment.getToUserId(), payment.getAmount().negate(), BigDecimal::add);
             }
 
-            // Generate settlement suggestions
-            List<SettlementSuggestion> suggestions = generateSettlementSuggestions(userBalances);
-            
-            return ResponseEntity.ok(new SettlementCalculationResult(userBalances, suggestions));
+            // The ledger snapshot has a row for every user, so anyone missing from it does not exist
+            Map<Long, BigDecimal> userBalances = balanceLedgerService.getBalances();
+            Set<Long> unknownUserIds = new HashSet<>(balanceChanges.keySet());
+            unknownUserIds.removeAll(userBalances.keySet());
+            if (!unknownUserIds.isEmpty()) {
+                throw new IllegalArgumentException("Users not found: " + unknownUserIds);
+            }
+            balanceChanges.values().removeIf(amount -> amount.signum() == 0);
+            balanceChanges.forEach((userId, amount) -> userBalances.merge(userId, amount, BigDecimal::add));
+
+            return ResponseEntity.ok(new SimulationResult(
+                userBalances,
+                balanceChanges,
+                generateSettlementSuggestions(userBalances, strategy, null)
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Error calculating settlements: " + e.getMessage());
+            return ResponseEntity.internalServerError().body("Error simulating settlements: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the per-user balance ledger from the full expense and payment history.
+     */
+    public ResponseEntity<?> rebuildBalances() {
+        try {
+            Map<Long, BigDecimal> balances = balanceLedgerService.rebuild();
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(true));
+            return ResponseEntity.ok(balances);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error rebuilding balances: " + e.getMessage());
         }
     }
 
+    /**
+     * Get settlement counts and totals. Computed with one aggregate query and cached briefly,
+     * since the dashboard requests it on every render; any settlement change invalidates the cache.
+     */
     public ResponseEntity<?> getSettlementSummary() {
         try {
-            long totalSettlements = settlementRepository.count();
-            long pendingSettlements = settlementRepository.countByStatus(SettlementStatus.PENDING);
-            long paidSettlements = settlementRepository.countByStatus(SettlementStatus.PAID);
-            long overdueSettlements = settlementRepository.countOverdueSettlements();
-            
-            BigDecimal totalAmount = settlementRepository.calculateTotalAmount();
-            BigDecimal pendingAmount = settlementRepository.calculatePendingAmount();
-
-            return ResponseEntity.ok(new SettlementSummary(
-                totalSettlements,
-                pendingSettlements,
-                paidSettlements,
-                overdueSettlements,
-                totalAmount != null ? totalAmount : BigDecimal.ZERO,
-                pendingAmount != null ? pendingAmount : BigDecimal.ZERO
-            ));
+            return ResponseEntity.ok(summaryCache.get(this::computeSettlementSummary));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error fetching settlement summary: " + e.getMessage());
         }
     }
 
+    /**
+     * Drop the cached summary once a change to expenses or settlements has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        summaryCache.invalidate();
+    }
+
+    // Helper method to compute the settlement summary in a single round trip
+    private SettlementSummary computeSettlementSummary() {
+        Object[] row = settlementRepository.summarize().get(0);
+        return new SettlementSummary(
+            ((Number) row[0]).longValue(),
+            ((Number) row[1]).longValue(),
+            ((Number) row[2]).longValue(),
+            ((Number) row[3]).longValue(),
+            (BigDecimal) row[4],
+            (BigDecimal) row[5]
+        );
+    }
+
+    // Helper method to compute balances and suggestions from the ledger
+    private SettlementCalculationResult computeSettlements(SettlementStrategy strategy) {
+        // Balances are maintained incrementally by the ledger, so this reads one row per user
+        Map<Long, BigDecimal> userBalances = Collections.unmodifiableMap(balanceLedgerService.getBalances());
+
+        // Generate settlement suggestions, either for the global pool or for every partition
+        List<SettlementSuggestion> suggestions = settlementPartitionService.isEnabled()
+            ? generatePartitionSuggestions(settlementPartitionService.loadAll(), strategy)
+            : generateSettlementSuggestions(userBalances, strategy, null);
+
+        return new SettlementCalculationResult(userBalances, Collections.unmodifiableList(suggestions));
+    }
+
+    // Helper method to validate a simulated amount
+    private static void requirePositive(BigDecimal amount, String label) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException(label + " must be greater than zero");
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    // Helper method to settle partitions independently and in parallel
+    private List<SettlementSuggestion> generatePartitionSuggestions(List<BalancePartition> partitions, SettlementStrategy strategy) {
+        return settlementPartitionService.settleInParallel(partitions,
+            partition -> generateSettlementSuggestions(partition.getBalances(), strategy, partition.getJobId()));
+    }
+
+    // Helper method to build a change event scoped to the settlement's job
+    private FinancialDataChangedEvent changedEvent(boolean balancesChanged, Settlement settlement) {
+        Long jobId = settlement.getRelatedJob() != null ? settlement.getRelatedJob().getId() : null;
+        return FinancialDataChangedEvent.forJobs(balancesChanged, Collections.singletonList(jobId));
+    }
+
+    // Helper method to look up a settlement strategy by name
+    private SettlementStrategy resolveStrategy(String strategyName) {
+        String name = strategyName == null || strategyName.isBlank() ? defaultStrategy : strategyName;
+        return settlementStrategies.stream()
+            .filter(strategy -> strategy.getName().equalsIgnoreCase(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown settlement strategy: " + name));
+    }
+
     // Helper method to generate settlement suggestions
-    private List<SettlementSuggestion> generateSettlementSuggestions(Map<Long, BigDecimal> userBalances) {
+    private List<SettlementSuggestion> generateSettlementSuggestions(Map<Long, BigDecimal> userBalances, SettlementStrategy strategy, Long jobId) {
+        long[] userIds = new long[userBalances.size()];
+        long[] balanceCents = new long[userBalances.size()];
+        int i = 0;
+        for (Map.Entry<Long, BigDecimal> entry : userBalances.entrySet()) {
+            userIds[i] = entry.getKey();
+            balanceCents[i] = Money.toCents(entry.getValue());
+            i++;
+        }
+
         List<SettlementSuggestion> suggestions = new ArrayList<>();
-        
-        // Find users with positive balances (they are owed money)
-        List<Map.Entry<Long, BigDecimal>> creditors = userBalances.entrySet().stream()
-            .filter(entry -> entry.getValue().compareTo(BigDecimal.ZERO) > 0)
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .collect(Collectors.toList());
-        
-        // Find users with negative balances (they owe money)
-        List<Map.Entry<Long, BigDecimal>> debtors = userBalances.entrySet().stream()
-            .filter(entry -> entry.getValue().compareTo(BigDecimal.ZERO) < 0)
-            .sorted((a, b) -> a.getValue().compareTo(b.getValue()))
-            .collect(Collectors.toList());
-        
-        // Generate optimal settlement suggestions
-        for (Map.Entry<Long, BigDecimal> creditor : creditors) {
-            BigDecimal remainingCredit = creditor.getValue();
-            
-            for (Map.Entry<Long, BigDecimal> debtor : debtors) {
-                if (remainingCredit.compareTo(BigDecimal.ZERO) <= 0) break;
-                
-                BigDecimal debt = debtor.getValue().abs();
-                BigDecimal settlementAmount = remainingCredit.min(debt);
-                
-                if (settlementAmount.compareTo(BigDecimal.ZERO) > 0) {
-                    suggestions.add(new SettlementSuggestion(
-                        debtor.getKey(),
-                        creditor.getKey(),
-                        settlementAmount
-                    ));
-                    
-                    remainingCredit = remainingCredit.subtract(settlementAmount);
-                    userBalances.put(debtor.getKey(), debtor.getValue().add(settlementAmount));
-                }
-            }
+        for (SettlementStrategy.Transfer transfer : strategy.settle(userIds, balanceCents)) {
+            suggestions.add(new SettlementSuggestion(
+                transfer.getFromUserId(),
+                transfer.getToUserId(),
+                Money.toBigDecimal(transfer.getAmountCents()),
+                jobId
+            ));
         }
-        
         return suggestions;
     }
 
+    // Cache entry for a calculation result
+    private static class CachedCalculation {
+        private final long version;
+        private final SettlementCalculationResult result;
+
+        CachedCalculation(long version, SettlementCalculationResult result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+
     // Inner classes for response data
     public static class SettlementCalculationResult {
         private Map<Long, BigDecimal> userBalances;
@@ -359,17 +598,43 @@ public class SettlementService {
         private Long fromUserId;
         private Long toUserId;
         private BigDecimal amount;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long jobId;
 
         public SettlementSuggestion(Long fromUserId, Long toUserId, BigDecimal amount) {
+            this(fromUserId, toUserId, amount, null);
+        }
+
+        public SettlementSuggestion(Long fromUserId, Long toUserId, BigDecimal amount, Long jobId) {
             this.fromUserId = fromUserId;
             this.toUserId = toUserId;
             this.amount = amount;
+            this.jobId = jobId;
         }
 
         // Getters
         public Long getFromUserId() { return fromUserId; }
         public Long getToUserId() { return toUserId; }
         public BigDecimal getAmount() { return amount; }
+        public Long getJobId() { return jobId; }
+    }
+
+    public static class SimulationResult {
+        private Map<Long, BigDecimal> userBalances;
+        private Map<Long, BigDecimal> balanceChanges;
+        private List<SettlementSuggestion> suggestions;
+
+        public SimulationResult(Map<Long, BigDecimal> userBalances, Map<Long, BigDecimal> balanceChanges,
+                                List<SettlementSuggestion> suggestions) {
+            this.userBalances = userBalances;
+            this.balanceChanges = balanceChanges;
+            this.suggestions = suggestions;
+        }
+
+        // Getters
+        public Map<Long, BigDecimal> getUserBalances() { return userBalances; }
+        public Map<Long, BigDecimal> getBalanceChanges() { return balanceChanges; }
+        public List<SettlementSuggestion> getSuggestions() { return suggestions; }
     }
 
     public static class SettlementSummary {
@@ -399,72 +664,119 @@ public class SettlementService {
         public BigDecimal getPendingAmount() { return pendingAmount; }
     }
 
+    /**
+     * Whether settlements are computed per job and debt-graph component rather than as one global pool.
+     */
+    public boolean isPartitioned() {
+        return settlementPartitionService.isEnabled();
+    }
+
     /**
      * Updates and persists settlements based on current shared expenses.
-     * This method should be called after a shared expense is created, updated, or deleted.
+     * Runs in the background via SettlementRecomputeScheduler after shared expenses or payments change.
      */
     @Transactional
     public void updateAndPersistSettlements() {
-        System.out.println("SettlementService: Starting updateAndPersistSettlements()");
-        
-        // Get current settlement suggestions
-        ResponseEntity<?> calculationResultResponse = calculateSettlements();
-        if (!calculationResultResponse.getStatusCode().is2xxSuccessful() || !(calculationResultResponse.getBody() instanceof SettlementCalculationResult)) {
-            // Log error or handle appropriately
-            System.err.println("Failed to calculate settlements: " + calculationResultResponse.getBody());
-            return;
+        logger.debug("Recomputing and persisting all settlements");
+
+        // Get current settlement suggestions, bypassing the cache since it may not have seen the latest commit yet
+        SettlementCalculationResult calculationResult = computeSettlements(resolveStrategy(null));
+
+        // Diff against all existing unpaid settlements as (id, fromUserId, toUserId, amount, jobId) rows
+        persistSuggestions(settlementRepository.findSummariesByStatusIn(OPEN_STATUSES), calculationResult.getSuggestions());
+    }
+
+    /**
+     * Updates and persists settlements of the given partitions only, leaving every other partition untouched.
+     * Only meaningful when settlements are partitioned.
+     * @param jobIds Jobs whose expenses or payments changed.
+     * @param includeUnassigned Whether records without a job changed, in which case all their components are recomputed.
+     */
+    @Transactional
+    public void updateAndPersistSettlements(Collection<Long> jobIds, boolean includeUnassigned) {
+        List<BalancePartition> partitions = new ArrayList<>();
+        List<Object[]> existingRows = new ArrayList<>();
+        for (Long jobId : jobIds) {
+            partitions.add(settlementPartitionService.loadJob(jobId));
+            existingRows.addAll(settlementRepository.findSummariesByStatusInAndJob(OPEN_STATUSES, jobId));
         }
-        SettlementCalculationResult calculationResult = (SettlementCalculationResult) calculationResultResponse.getBody();
-        if (calculationResult == null) {
-            System.err.println("Settlement calculation result is null");
-            return;
+        if (includeUnassigned) {
+            partitions.addAll(settlementPartitionService.loadUnassigned());
+            existingRows.addAll(settlementRepository.findUnassignedSummariesByStatusIn(OPEN_STATUSES));
         }
-        List<SettlementSuggestion> newSuggestions = calculationResult.getSuggestions();
 
-        // Get all existing PENDING settlements
-        List<Settlement> existingPendingSettlements = settlementRepository.findByStatus(SettlementStatus.PENDING);
-        Map<String, Settlement> existingSettlementMap = new HashMap<>();
-        for (Settlement s : existingPendingSettlements) {
-            // Create a unique key for each settlement (fromUser, toUser)
-            if (s.getFromUser() == null || s.getToUser() == null) {
-                System.err.println("Skipping settlement with null fromUser or toUser: " + s.getId());
-                continue;
+        persistSuggestions(existingRows, generatePartitionSuggestions(partitions, resolveStrategy(null)));
+    }
+
+    // Helper method to diff suggestions against existing unpaid (id, fromUserId, toUserId, amount, jobId) rows and apply the difference
+    private void persistSuggestions(List<Object[]> existingRows, List<SettlementSuggestion> newSuggestions) {
+        Map<String, Object[]> existingSettlementMap = new HashMap<>();
+        List<Long> staleSettlementIds = new ArrayList<>();
+        for (Object[] row : existingRows) {
+            // Create a unique key for each settlement (job, fromUser, toUser); duplicates are cancelled
+            String key = row[4] + "-" + row[1] + "-" + row[2];
+            if (existingSettlementMap.putIfAbsent(key, row) != null) {
+                staleSettlementIds.add((Long) row[0]);
             }
-            String key = s.getFromUser().getId() + "-" + s.getToUser().getId();
-            existingSettlementMap.put(key, s);
         }
 
-        System.out.println("SettlementService: Found " + newSuggestions.size() + " settlement suggestions");
-        
-        // Process new suggestions
-        Set<String> processedSuggestionKeys = new HashSet<>();
+        // Diff the suggestions against the existing settlements
+        Map<Long, BigDecimal> changedAmounts = new HashMap<>();
+        List<SettlementSuggestion> newSettlementSuggestions = new ArrayList<>();
         for (SettlementSuggestion suggestion : newSuggestions) {
-            String key = suggestion.getFromUserId() + "-" + suggestion.getToUserId();
-            processedSuggestionKeys.add(key);
-
-            Settlement settlement;
-            if (existingSettlementMap.containsKey(key)) {
-                // Update existing settlement
-                settlement = existingSettlementMap.get(key);
-                settlement.setAmount(suggestion.getAmount());
-                // Remove from map to identify settlements that are no longer needed
-                existingSettlementMap.remove(key);
-            } else {
-                // Create new settlement
-                settlement = new Settlement();
-                settlement.setFromUser(userRepository.findById(suggestion.getFromUserId()).orElseThrow(() -> new RuntimeException("From User not found")));
-                settlement.setToUser(userRepository.findById(suggestion.getToUserId()).orElseThrow(() -> new RuntimeException("To User not found")));
-                settlement.setAmount(suggestion.getAmount());
-                settlement.setDueDate(LocalDateTime.now().plusDays(30)); // Default due date
-                settlement.setStatus(SettlementStatus.PENDING);
+            String key = suggestion.getJobId() + "-" + suggestion.getFromUserId() + "-" + suggestion.getToUserId();
+            // Remove from map to identify settlements that are no longer needed
+            Object[] existing = existingSettlementMap.remove(key);
+            if (existing == null) {
+                newSettlementSuggestions.add(suggestion);
+            } else if (((BigDecimal) existing[3]).compareTo(suggestion.getAmount()) != 0) {
+                changedAmounts.put((Long) existing[0], suggestion.getAmount());
             }
-            settlementRepository.save(settlement);
+        }
+        for (Object[] remaining : existingSettlementMap.values()) {
+            staleSettlementIds.add((Long) remaining[0]);
         }
 
-        // Cancel remaining existing PENDING settlements that are no longer suggested
-        for (Settlement oldSettlement : existingSettlementMap.values()) {
-            oldSettlement.setStatus(SettlementStatus.CANCELLED);
-            settlementRepository.save(oldSettlement);
+        // Verify every referenced user exists with one query
+        Set<Long> referencedUserIds = new HashSet<>();
+        for (SettlementSuggestion suggestion : newSettlementSuggestions) {
+            referencedUserIds.add(suggestion.getFromUserId());
+            referencedUserIds.add(suggestion.getToUserId());
+        }
+        if (!referencedUserIds.isEmpty()) {
+            referencedUserIds.removeAll(userRepository.findExistingIds(referencedUserIds));
+            if (!referencedUserIds.isEmpty()) {
+                throw new RuntimeException("Users not found: " + referencedUserIds);
+            }
+        }
+
+        List<Settlement> newSettlements = new ArrayList<>();
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(30); // Default due date
+        for (SettlementSuggestion suggestion : newSettlementSuggestions) {
+            Settlement settlement = new Settlement();
+            settlement.setFromUser(userRepository.getReferenceById(suggestion.getFromUserId()));
+            settlement.setToUser(userRepository.getReferenceById(suggestion.getToUserId()));
+            settlement.setAmount(suggestion.getAmount());
+            settlement.setDueDate(dueDate);
+            settlement.setStatus(SettlementStatus.PENDING);
+            if (suggestion.getJobId() != null) {
+                settlement.setRelatedJob(jobRepository.getReferenceById(suggestion.getJobId()));
+            }
+            newSettlements.add(settlement);
+        }
+
+        // Apply the diff with one batch per operation, regardless of how many pairs changed
+        settlementRepository.batchInsert(newSettlements);
+        settlementRepository.batchUpdateAmounts(changedAmounts);
+        // Cancel remaining existing unpaid settlements that are no longer suggested
+        if (!staleSettlementIds.isEmpty()) {
+            settlementRepository.cancelOpenByIds(staleSettlementIds, changeSequence.next(), LocalDateTime.now());
+        }
+
+        if (newSettlements.isEmpty() && changedAmounts.isEmpty() && staleSettlementIds.isEmpty()) {
+            return;
         }
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(false));
+        eventPublisher.publishEvent(LiveUpdateEvent.settlementsRecomputed(newSettlements.size(), changedAmounts.size(), staleSettlementIds.size()));
     }
 }
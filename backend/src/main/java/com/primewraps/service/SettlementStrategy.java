@@ -0,0 +1,44 @@
+package com.primewraps.service;
+
+import java.util.List;
+
+/**
+ * Strategy for turning per-user net balances into a list of suggested transfers.
+ * Balances are expressed in integer cents: positive means the user is owed money,
+ * negative means the user owes money.
+ */
+public interface SettlementStrategy {
+
+    /**
+     * The name used to select this strategy (e.g. {@code ?strategy=greedy}).
+     */
+    String getName();
+
+    /**
+     * Compute the transfers that settle the given balances.
+     * @param userIds The user IDs, parallel to {@code balanceCents}.
+     * @param balanceCents The net balance of each user in cents. Implementations must not modify this array.
+     * @return The suggested transfers.
+     */
+    List<Transfer> settle(long[] userIds, long[] balanceCents);
+
+    /**
+     * A single suggested payment from a debtor to a creditor.
+     */
+    class Transfer {
+        private final long fromUserId;
+        private final long toUserId;
+        private final long amountCents;
+
+        public Transfer(long fromUserId, long toUserId, long amountCents) {
+            this.fromUserId = fromUserId;
+            this.toUserId = toUserId;
+            this.amountCents = amountCents;
+        }
+
+        // Getters
+        public long getFromUserId() { return fromUserId; }
+        public long getToUserId() { return toUserId; }
+        public long getAmountCents() { return amountCents; }
+    }
+}
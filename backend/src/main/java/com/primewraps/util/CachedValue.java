@@ -0,0 +1,53 @@
+package com.primewraps.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A single lazily loaded value that expires after a fixed time-to-live or when explicitly invalidated.
+ * A load that races with an invalidation is returned to its caller but never served to later readers.
+ */
+public final class CachedValue<T> {
+
+    private final long ttlMs;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Entry<T> entry;
+
+    public CachedValue(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Get the cached value, loading it if it is missing, expired or invalidated.
+     */
+    public T get(Supplier<T> loader) {
+        long currentGeneration = generation.get();
+        long now = System.currentTimeMillis();
+        Entry<T> current = entry;
+        if (current != null && current.generation == currentGeneration && now < current.expiresAtMs) {
+            return current.value;
+        }
+        T value = loader.get();
+        entry = new Entry<>(currentGeneration, now + ttlMs, value);
+        return value;
+    }
+
+    /**
+     * Discard the cached value so the next read loads it again.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private static final class Entry<T> {
+        private final long generation;
+        private final long expiresAtMs;
+        private final T value;
+
+        Entry(long generation, long expiresAtMs, T value) {
+            this.generation = generation;
+            this.expiresAtMs = expiresAtMs;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.primewraps.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount stored as a whole number of cents.
+ * Used for balance, split and margin arithmetic so intermediate results stay exact and cheap;
+ * convert to BigDecimal only when reading from or writing to entities and DTOs.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Convert a BigDecimal amount, rounding half up to whole cents.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Convert a BigDecimal amount to whole cents without creating a Money instance, rounding half up.
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert whole cents to a BigDecimal with a scale of 2.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Split an amount of cents into the given number of shares using the largest remainder method:
+     * every share gets the truncated quotient and the first (cents mod parts) shares get one extra cent,
+     * so the shares always add up to exactly the total.
+     */
+    public static long[] allocate(long cents, int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Number of shares must be positive");
+        }
+        long base = Math.floorDiv(cents, parts);
+        long remainder = Math.floorMod(cents, parts);
+        long[] shares = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            shares[i] = i < remainder ? base + 1 : base;
+        }
+        return shares;
+    }
+
+    /**
+     * Divide a by b, rounding half up (away from zero on ties).
+     */
+    public static long divideHalfUp(long a, long b) {
+        long quotient = a / b;
+        long remainder = a % b;
+        if (Math.abs(remainder) * 2 >= Math.abs(b)) {
+            quotient += Long.signum(a) * Long.signum(b);
+        }
+        return quotient;
+    }
+
+    /**
+     * Get this amount as a percentage of a base amount, in hundredths of a percent (rounded half up).
+     */
+    public long percentOfInBasisPoints(Money base) {
+        return divideHalfUp(Math.multiplyExact(cents, 10_000L), base.cents);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
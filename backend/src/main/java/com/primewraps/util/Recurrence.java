@@ -0,0 +1,79 @@
+package com.primewraps.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Schedule arithmetic for recurring expenses.
+ * Occurrences are always computed from the template's original date (anchor + k periods) rather than
+ * from the previous occurrence, so a template dated the 31st lands on the last day of short months
+ * without drifting to the 28th for the rest of the year.
+ */
+public final class Recurrence {
+
+    private Recurrence() {}
+
+    /**
+     * Get the number of months between occurrences for a frequency.
+     * @return 1, 3 or 12, or null if the frequency is blank.
+     * @throws IllegalArgumentException If the frequency is not monthly, quarterly or yearly.
+     */
+    public static Integer monthsPerPeriod(String frequency) {
+        if (frequency == null || frequency.isBlank()) {
+            return null;
+        }
+        switch (frequency.trim().toLowerCase()) {
+            case "monthly":
+                return 1;
+            case "quarterly":
+                return 3;
+            case "yearly":
+                return 12;
+            default:
+                throw new IllegalArgumentException("Unsupported recurring frequency: " + frequency
+                        + " (expected monthly, quarterly or yearly)");
+        }
+    }
+
+    /**
+     * Get the first occurrence after the anchor itself that falls on or after the bound.
+     */
+    public static LocalDateTime firstDueOnOrAfter(LocalDateTime anchor, int monthsPerPeriod, LocalDateTime bound) {
+        // Jump close to the bound, then step; plusMonths clamps to month ends so the estimate can be one period short
+        long periods = Math.max(1, java.time.temporal.ChronoUnit.MONTHS.between(anchor, bound) / monthsPerPeriod);
+        LocalDateTime due = anchor.plusMonths(periods * monthsPerPeriod);
+        while (due.isBefore(bound)) {
+            periods++;
+            due = anchor.plusMonths(periods * monthsPerPeriod);
+        }
+        while (periods > 1 && !anchor.plusMonths((periods - 1) * monthsPerPeriod).isBefore(bound)) {
+            periods--;
+            due = anchor.plusMonths(periods * monthsPerPeriod);
+        }
+        return due;
+    }
+
+    /**
+     * Get the period an occurrence belongs to: the first day of its month.
+     * At most one occurrence of a template is generated per period.
+     */
+    public static LocalDate periodOf(LocalDateTime occurrence) {
+        return occurrence.toLocalDate().withDayOfMonth(1);
+    }
+
+    /**
+     * Get the next due date of a recurring expense.
+     * @param anchor The template's date.
+     * @param frequency The template's frequency.
+     * @param latestPeriod The latest period already generated for the template, or null if none.
+     * @return The first occurrence after the anchor in a period later than latestPeriod, or null if the frequency is blank.
+     */
+    public static LocalDateTime nextDueDate(LocalDateTime anchor, String frequency, LocalDate latestPeriod) {
+        Integer months = monthsPerPeriod(frequency);
+        if (months == null || anchor == null) {
+            return null;
+        }
+        LocalDateTime bound = latestPeriod != null ? latestPeriod.plusMonths(1).atStartOfDay() : anchor;
+        return firstDueOnOrAfter(anchor, months, bound);
+    }
+}
@@ -0,0 +1,33 @@
+-- Change tracking behind the delta-sync feed: every write stamps change_seq and updated_at, every delete leaves a tombstone.
+-- Existing rows get change_seq 1 rather than 0, so clients starting from since=0 still receive them.
+-- The application seeds its sequence from the highest stored number on startup.
+
+alter table expenses add column change_seq bigint default 0 not null;
+alter table expenses add column updated_at timestamp(6);
+update expenses set change_seq = 1, updated_at = created_at;
+alter table expenses alter column updated_at set not null;
+
+alter table jobs add column change_seq bigint default 0 not null;
+alter table jobs add column updated_at timestamp(6);
+update jobs set change_seq = 1, updated_at = created_at;
+alter table jobs alter column updated_at set not null;
+
+alter table settlements add column change_seq bigint default 0 not null;
+alter table settlements add column updated_at timestamp(6);
+update settlements set change_seq = 1, updated_at = created_at;
+alter table settlements alter column updated_at set not null;
+
+create index idx_expenses_change_seq on expenses (change_seq);
+create index idx_jobs_change_seq on jobs (change_seq);
+create index idx_settlements_change_seq on settlements (change_seq);
+
+create table sync_tombstones (
+    change_seq bigint not null,
+    deleted_at timestamp(6) not null,
+    entity_id bigint not null,
+    id bigint generated by default as identity,
+    entity_type varchar(255) not null check (entity_type in ('EXPENSE','JOB','SETTLEMENT')),
+    primary key (id)
+);
+
+create index idx_sync_tombstones_change_seq on sync_tombstones (change_seq);
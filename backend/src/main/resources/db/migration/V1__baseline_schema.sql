@@ -0,0 +1,114 @@
+-- Schema as it stood before versioned migrations were introduced.
+-- Existing databases already have these objects and are baselined at this version instead of running it.
+
+create table contacts (
+    id bigint generated by default as identity,
+    submission_time timestamp(6),
+    service varchar(1000),
+    message varchar(2000),
+    email varchar(255),
+    name varchar(255),
+    phone varchar(255),
+    status varchar(255) check (status in ('PENDING','REVIEWED','ARCHIVED')),
+    primary key (id)
+);
+create table expense_splits (
+    expense_id bigint not null,
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    primary key (id)
+);
+create table expenses (
+    amount numeric(10,2) not null,
+    is_recurring boolean not null,
+    is_shared_expense boolean not null,
+    is_tax_deductible boolean not null,
+    split_count integer not null,
+    created_at timestamp(6) not null,
+    created_by_user_id bigint not null,
+    date timestamp(6) not null,
+    id bigint generated by default as identity,
+    job_id bigint,
+    paid_by_user_id bigint not null,
+    category varchar(255) not null check (category in ('MATERIALS','TOOLS','TRAVEL','MEALS','UTILITIES','INSURANCE','SUBSCRIPTIONS','MARKETING','OFFICE_SUPPLIES','EQUIPMENT','MAINTENANCE','OTHER')),
+    description varchar(255) not null,
+    notes varchar(255),
+    receipt_url varchar(255),
+    recurring_frequency varchar(255),
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REIMBURSED','REJECTED')),
+    primary key (id)
+);
+create table job_assignments (
+    hourly_rate numeric(10,2),
+    hours_worked numeric(5,2),
+    total_earnings numeric(10,2),
+    assigned_date timestamp(6) not null,
+    end_time timestamp(6),
+    id bigint generated by default as identity,
+    job_id bigint not null,
+    start_time timestamp(6),
+    user_id bigint not null,
+    notes varchar(255),
+    responsibilities TEXT,
+    status varchar(255) not null check (status in ('ASSIGNED','IN_PROGRESS','COMPLETED','CANCELLED')),
+    primary key (id)
+);
+create table job_team_members (
+    job_id bigint not null,
+    user_id bigint not null,
+    primary key (job_id, user_id)
+);
+create table jobs (
+    profit_margin numeric(10,2),
+    total_expenses numeric(10,2),
+    total_revenue numeric(10,2),
+    created_at timestamp(6) not null,
+    end_date timestamp(6),
+    id bigint generated by default as identity,
+    start_date timestamp(6) not null,
+    client_name varchar(255),
+    description TEXT,
+    location varchar(255),
+    status varchar(255) not null check (status in ('PLANNING','IN_PROGRESS','ON_HOLD','COMPLETED','CANCELLED')),
+    title varchar(255) not null,
+    primary key (id)
+);
+create table settlements (
+    amount numeric(10,2) not null,
+    created_at timestamp(6) not null,
+    due_date timestamp(6) not null,
+    expense_id bigint,
+    from_user_id bigint not null,
+    id bigint generated by default as identity,
+    job_id bigint,
+    paid_date timestamp(6),
+    to_user_id bigint not null,
+    notes varchar(255),
+    payment_method varchar(255),
+    status varchar(255) not null check (status in ('PENDING','PAID','OVERDUE','CANCELLED')),
+    primary key (id)
+);
+create table user_roles (
+    user_id bigint not null,
+    role varchar(255)
+);
+create table users (
+    id bigint generated by default as identity,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+alter table expense_splits add constraint FKqigr3qe91wgifpl6mak0xcdso foreign key (expense_id) references expenses;
+alter table expense_splits add constraint FKnikv7drxxkj9x862du3r4ruam foreign key (user_id) references users;
+alter table expenses add constraint FKixenneq8qfbd71uklu43ss115 foreign key (created_by_user_id) references users;
+alter table expenses add constraint FKm0erqkbgf4xj7t2tbcr7nlsoh foreign key (job_id) references jobs;
+alter table expenses add constraint FKo0m8jktfrmdbhhajx3qwr8ngr foreign key (paid_by_user_id) references users;
+alter table job_assignments add constraint FKnx9cg2vp5cax9gwh70nnjyv5f foreign key (job_id) references jobs;
+alter table job_assignments add constraint FKm1nrbh4dnny0k3ctatj1gvaqm foreign key (user_id) references users;
+alter table job_team_members add constraint FKdi7igql50x0gqe8uwlrago2re foreign key (user_id) references users;
+alter table job_team_members add constraint FK2npovwjwi994349v5525i1vay foreign key (job_id) references jobs;
+alter table settlements add constraint FKekdsuh8u65xgs4es7p64mkhjw foreign key (from_user_id) references users;
+alter table settlements add constraint FK2mku6ekahr1nwum91xn5fci8b foreign key (expense_id) references expenses;
+alter table settlements add constraint FK45ppcewr0tpplipa6t16d11fm foreign key (job_id) references jobs;
+alter table settlements add constraint FK266tpq4hshqn8o6xdlm3y878u foreign key (to_user_id) references users;
+alter table user_roles add constraint FKhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users;
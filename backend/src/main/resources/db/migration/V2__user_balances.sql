@@ -0,0 +1,9 @@
+-- Per-user net balance ledger, kept up to date with deltas on every expense and settlement change.
+-- BalanceLedgerService rebuilds it from history on startup while it is empty, so no backfill is needed here.
+
+create table user_balances (
+    user_id bigint not null,
+    balance numeric(12,2) not null,
+    updated_at timestamp(6) not null,
+    primary key (user_id)
+);
@@ -0,0 +1,3 @@
+-- Lets the overdue sweep find open settlements past their due date without scanning the table.
+
+create index idx_settlements_status_due_date on settlements (status, due_date);
@@ -0,0 +1,3 @@
+-- Backs the payment history of a payer/recipient pair.
+
+create index idx_settlements_pair_status on settlements (from_user_id, to_user_id, status);
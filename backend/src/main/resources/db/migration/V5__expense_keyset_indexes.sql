@@ -0,0 +1,7 @@
+-- Keyset pagination of expense listings orders by (date, id); each filter gets an index that ends in that order.
+
+create index idx_expenses_date_id on expenses (date, id);
+create index idx_expenses_status_date_id on expenses (status, date, id);
+create index idx_expenses_job_date_id on expenses (job_id, date, id);
+create index idx_expenses_paid_by_date_id on expenses (paid_by_user_id, date, id);
+create index idx_expenses_shared_date_id on expenses (is_shared_expense, date, id);
@@ -0,0 +1,18 @@
+-- Daily expense rollups behind the monthly and quarterly spend reports.
+-- ExpenseRollupService rebuilds the table from history on startup while it is empty, so no backfill is needed here.
+
+create table expense_daily_rollups (
+    rollup_date date not null,
+    total_amount numeric(14,2) not null,
+    expense_count bigint not null,
+    id bigint generated by default as identity,
+    job_id bigint not null,
+    paid_by_user_id bigint not null,
+    updated_at timestamp(6) not null,
+    category varchar(255) not null check (category in ('MATERIALS','TOOLS','TRAVEL','MEALS','UTILITIES','INSURANCE','SUBSCRIPTIONS','MARKETING','OFFICE_SUPPLIES','EQUIPMENT','MAINTENANCE','OTHER')),
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REIMBURSED','REJECTED')),
+    primary key (id),
+    constraint uk_expense_daily_rollups_key unique (rollup_date, category, status, paid_by_user_id, job_id)
+);
+
+create index idx_expense_daily_rollups_category_date on expense_daily_rollups (category, rollup_date);
@@ -0,0 +1,5 @@
+-- Expense search leads with its most selective equality filter and still reads in (date, id) order.
+
+create index idx_expenses_category_date_id on expenses (category, date, id);
+create index idx_expenses_status_paid_by_date_id on expenses (status, paid_by_user_id, date, id);
+create index idx_expenses_tax_deductible_date_id on expenses (is_tax_deductible, date, id);
@@ -0,0 +1,18 @@
+-- Recurring expenses act as templates that the scheduled generator materializes once per period.
+
+alter table expenses add column next_due_date timestamp(6);
+alter table expenses add column recurrence_template_id bigint;
+alter table expenses add column recurrence_period date;
+
+-- At most one occurrence per template and period
+alter table expenses add constraint uk_expenses_recurrence_period unique (recurrence_template_id, recurrence_period);
+create index idx_expenses_next_due_date on expenses (next_due_date);
+
+-- Schedule existing templates the way the application schedules a new one: one period after the template's date.
+-- Templates that are behind are then caught up by the generator, up to expenses.recurring.max-catch-up per run.
+update expenses set next_due_date = date + interval '1' month
+    where is_recurring and lower(trim(recurring_frequency)) = 'monthly';
+update expenses set next_due_date = date + interval '3' month
+    where is_recurring and lower(trim(recurring_frequency)) = 'quarterly';
+update expenses set next_due_date = date + interval '12' month
+    where is_recurring and lower(trim(recurring_frequency)) = 'yearly';
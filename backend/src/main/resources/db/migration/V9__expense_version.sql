@@ -0,0 +1,3 @@
+-- Optimistic locking version of expenses; bulk status updates bump it in the same UPDATE.
+
+alter table expenses add column version bigint default 0 not null;
@@ -0,0 +1,29 @@
+package com.primewraps;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every migration against an empty database and lets Hibernate validate the result,
+ * so an entity change without a matching migration fails here rather than at production startup.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void migrationsProduceTheMappedSchema() {
+        // Hibernate validates the schema while the context starts, so reaching this point means it matched
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()).isNotEmpty();
+    }
+}
@@ -0,0 +1,126 @@
+package com.primewraps.filter;
+
+import com.primewraps.PrimeWrapsApplication;
+import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.model.User;
+import com.primewraps.repository.UserRepository;
+import com.primewraps.service.ExpenseService;
+import com.primewraps.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures request throughput through the full security filter chain, including JwtAuthFilter's request
+ * logging and the async console appender in logback-spring.xml. sampleEvery=1 logs every request at INFO,
+ * as the filter did before sampling; 100 is the default and 0 turns the request line off. The current user
+ * lookup does little work of its own, so it shows the per-request logging cost; the shared expense page
+ * shows how much of that is left on a typical listing.
+ * See "Benchmarks" in EXPENSE_SYSTEM_README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final int SHARED_EXPENSES = 300;
+
+    @Param({"1", "100", "0"})
+    private String sampleEvery;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String authorization;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(PrimeWrapsApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "request-logging.sample-every=" + sampleEvery,
+                        "settlements.recompute.debounce-ms=3600000",
+                        "settlements.recompute.max-delay-ms=3600000",
+                        "settlements.overdue-sweep.initial-delay-ms=3600000",
+                        "expenses.recurring.initial-delay-ms=3600000")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+        authorization = "Bearer " + context.getBean(JwtUtil.class).generateToken("admin");
+        createSharedExpenses();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult currentUser() throws Exception {
+        return mockMvc.perform(get("/api/auth/me").header("Authorization", authorization)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult sharedExpensesPage() throws Exception {
+        return mockMvc.perform(get("/api/expenses/shared").param("size", "50").header("Authorization", authorization))
+                .andReturn();
+    }
+
+    // Helper method to create the shared expenses listed by the benchmark, as the admin user
+    private void createSharedExpenses() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        User admin = userRepository.save(new User("admin", "password", Set.of("ADMIN")));
+        User partner = userRepository.save(new User("partner", "password", Set.of("USER")));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        try {
+            for (int i = 0; i < SHARED_EXPENSES; i++) {
+                ExpenseRequest request = new ExpenseRequest();
+                request.setDescription("Shared expense " + i);
+                request.setAmount(new BigDecimal("10.00"));
+                request.setCategory("MATERIALS");
+                request.setDate(LocalDateTime.of(2026, 1, 1, 9, 0).plusHours(i));
+                request.setPaidByUserId(admin.getId());
+                request.setSharedExpense(true);
+                request.setSplitUserIds(List.of(partner.getId()));
+                expenseService.createExpense(request);
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
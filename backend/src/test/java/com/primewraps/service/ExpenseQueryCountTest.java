@@ -0,0 +1,113 @@
+package com.primewraps.service;
+
+import com.primewraps.dto.ExpenseDTO;
+import com.primewraps.dto.ExpensePage;
+import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.model.User;
+import com.primewraps.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements behind expense reads, so a lazy association that starts loading once per expense
+ * fails here. Associations in Expense.details come with the expenses; split users are loaded in batches of 100.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expense-queries;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Statistics are shared by every session, so keep background jobs from running during the test
+        "settlements.recompute.debounce-ms=3600000",
+        "settlements.recompute.max-delay-ms=3600000",
+        "settlements.overdue-sweep.initial-delay-ms=3600000",
+        "expenses.recurring.initial-delay-ms=3600000"})
+@WithMockUser(username = "admin", roles = "ADMIN")
+class ExpenseQueryCountTest {
+
+    private static final int EXPENSE_COUNT = 500;
+    private static final int USER_COUNT = 10;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createExpenses() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.findByUsername("admin").isPresent()) {
+            return;
+        }
+        List<User> users = new ArrayList<>();
+        users.add(userRepository.save(new User("admin", "password", Set.of("ADMIN"))));
+        for (int i = 1; i < USER_COUNT; i++) {
+            users.add(userRepository.save(new User("user" + i, "password", Set.of("USER"))));
+        }
+        // Every user pays on every page, so split users are already loaded with the payers
+        for (int i = 0; i < EXPENSE_COUNT; i++) {
+            ExpenseRequest request = new ExpenseRequest();
+            request.setDescription("Expense " + i);
+            request.setAmount(new BigDecimal("12.34"));
+            request.setCategory("MATERIALS");
+            request.setDate(LocalDateTime.of(2026, 1, 1, 9, 0).plusHours(i));
+            request.setPaidByUserId(users.get(i % USER_COUNT).getId());
+            if (i % 2 == 0) {
+                request.setSharedExpense(true);
+                request.setSplitUserIds(List.of(users.get((i + 1) % USER_COUNT).getId(), users.get((i + 2) % USER_COUNT).getId()));
+            }
+            expenseService.createExpense(request);
+        }
+    }
+
+    @Test
+    void pendingExpensesLoadWithOneQueryPlusOneBatchPerHundredSplits() {
+        statistics.clear();
+
+        List<ExpenseDTO> expenses = expenseService.getPendingExpenses();
+
+        assertThat(expenses).hasSize(EXPENSE_COUNT);
+        assertThat(expenses.stream().filter(ExpenseDTO::isSharedExpense))
+                .allSatisfy(expense -> assertThat(expense.getSplitUsers()).hasSize(2));
+        // 1 query for the expenses with payer, creator and job, and 5 batches of split users
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + EXPENSE_COUNT / 100);
+    }
+
+    @Test
+    void expensePagesLoadWithTwoStatementsEach() {
+        statistics.clear();
+
+        int rows = 0;
+        int pages = 0;
+        String cursor = null;
+        do {
+            ExpensePage page = expenseService.getAllExpenses(cursor, 100, "date,desc");
+            rows += page.getContent().size();
+            pages++;
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(rows).isEqualTo(EXPENSE_COUNT);
+        // Per page: 1 keyset query for the expenses and 1 batch of split users
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * pages);
+    }
+}
@@ -0,0 +1,91 @@
+package com.primewraps.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GreedySettlementStrategyTest {
+
+    private final GreedySettlementStrategy strategy = new GreedySettlementStrategy();
+
+    @Test
+    void matchesTheLargestCreditorWithTheLargestDebtor() {
+        long[] userIds = {1, 2, 3, 4, 5};
+        long[] balances = {400, 300, -300, -200, -200};
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers).first().satisfies(transfer -> {
+            assertThat(transfer.getFromUserId()).isEqualTo(3);
+            assertThat(transfer.getToUserId()).isEqualTo(1);
+            assertThat(transfer.getAmountCents()).isEqualTo(300);
+        });
+        // The greedy order misses the {+3, -3} pair that would save a transfer
+        assertThat(transfers).hasSize(4);
+        assertSettles(userIds, balances, transfers);
+    }
+
+    @Test
+    void leavesUsersWithZeroBalanceOut() {
+        long[] userIds = {1, 2, 3, 4};
+        long[] balances = {0, 500, 0, -500};
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers).singleElement().satisfies(transfer -> {
+            assertThat(transfer.getFromUserId()).isEqualTo(4);
+            assertThat(transfer.getToUserId()).isEqualTo(2);
+            assertThat(transfer.getAmountCents()).isEqualTo(500);
+        });
+        assertThat(strategy.settle(new long[] {1, 2}, new long[] {0, 0})).isEmpty();
+    }
+
+    @Test
+    void settlesLargeGroupsWithAtMostOneTransferPerUserLessOne() {
+        int users = 1000;
+        long[] userIds = new long[users];
+        long[] balances = randomBalances(new Random(42), users);
+        for (int i = 0; i < users; i++) {
+            userIds[i] = i + 1;
+        }
+        long[] original = balances.clone();
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers.size()).isLessThan(users);
+        assertSettles(userIds, balances, transfers);
+        assertThat(balances).isEqualTo(original);
+    }
+
+    // Helper method to create random balances that add up to zero
+    static long[] randomBalances(Random random, int users) {
+        long[] balances = new long[users];
+        long sum = 0;
+        for (int i = 0; i < users; i++) {
+            balances[i] = random.nextInt(200_000) - 100_000;
+            sum += balances[i];
+        }
+        balances[users - 1] -= sum;
+        return balances;
+    }
+
+    // Helper method to check that the transfers bring every balance to exactly zero
+    static void assertSettles(long[] userIds, long[] balances, List<SettlementStrategy.Transfer> transfers) {
+        long[] remaining = balances.clone();
+        for (SettlementStrategy.Transfer transfer : transfers) {
+            assertThat(transfer.getAmountCents()).isPositive();
+            for (int i = 0; i < userIds.length; i++) {
+                if (userIds[i] == transfer.getFromUserId()) {
+                    remaining[i] += transfer.getAmountCents();
+                }
+                if (userIds[i] == transfer.getToUserId()) {
+                    remaining[i] -= transfer.getAmountCents();
+                }
+            }
+        }
+        assertThat(remaining).containsOnly(0L);
+    }
+}
@@ -0,0 +1,112 @@
+package com.primewraps.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.primewraps.service.GreedySettlementStrategyTest.assertSettles;
+import static com.primewraps.service.GreedySettlementStrategyTest.randomBalances;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MinimumTransferSettlementStrategyTest {
+
+    private final MinimumTransferSettlementStrategy strategy = new MinimumTransferSettlementStrategy(18);
+
+    @Test
+    void findsTheFewestTransfers() {
+        long[] userIds = {1, 2, 3, 4, 5};
+        long[] balances = {400, 300, -300, -200, -200};
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        // {+3, -3} and {+4, -2, -2} settle separately: 1 + 2 transfers, where greedy needs 4
+        assertThat(transfers).hasSize(3);
+        assertThat(transfers).anySatisfy(transfer -> {
+            assertThat(transfer.getFromUserId()).isEqualTo(3);
+            assertThat(transfer.getToUserId()).isEqualTo(2);
+            assertThat(transfer.getAmountCents()).isEqualTo(300);
+        });
+        assertSettles(userIds, balances, transfers);
+    }
+
+    @Test
+    void settlesEveryPairWithOneTransfer() {
+        long[] userIds = new long[14];
+        long[] balances = new long[14];
+        Random random = new Random(1);
+        for (int i = 0; i < 7; i++) {
+            long amount = random.nextInt(1000) + 1;
+            balances[2 * i] = amount;
+            balances[2 * i + 1] = -amount;
+        }
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = i + 1;
+        }
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers).hasSize(7);
+        assertSettles(userIds, balances, transfers);
+    }
+
+    @Test
+    void leavesUsersWithZeroBalanceOut() {
+        long[] userIds = {1, 2, 3, 4, 5, 6, 7};
+        long[] balances = {0, 400, 300, 0, -300, -200, -200};
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers).hasSize(3);
+        assertThat(transfers).noneMatch(transfer -> transfer.getFromUserId() == 1 || transfer.getToUserId() == 1
+                || transfer.getFromUserId() == 4 || transfer.getToUserId() == 4);
+        assertSettles(userIds, balances, transfers);
+        assertThat(strategy.settle(new long[] {1, 2}, new long[] {0, 0})).isEmpty();
+    }
+
+    @Test
+    void zeroBalancesDoNotCountTowardsTheLimit() {
+        MinimumTransferSettlementStrategy limited = new MinimumTransferSettlementStrategy(5);
+        long[] userIds = {1, 2, 3, 4, 5, 6, 7, 8};
+        long[] balances = {400, 0, 300, 0, -300, 0, -200, -200};
+
+        assertThat(limited.settle(userIds, balances)).hasSize(3);
+    }
+
+    @Test
+    void fallsBackToGreedyAboveTheLimit() {
+        MinimumTransferSettlementStrategy limited = new MinimumTransferSettlementStrategy(4);
+        long[] userIds = {1, 2, 3, 4, 5};
+        long[] balances = {400, 300, -300, -200, -200};
+
+        List<SettlementStrategy.Transfer> transfers = limited.settle(userIds, balances);
+
+        assertThat(transfers).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(new GreedySettlementStrategy().settle(userIds, balances));
+        assertThat(transfers).hasSize(4);
+    }
+
+    @Test
+    void rejectsALimitAboveTheCap() {
+        assertThatThrownBy(() -> new MinimumTransferSettlementStrategy(MinimumTransferSettlementStrategy.MAX_EXACT_USERS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void settlesLargeGroupsThroughTheFallback() {
+        int users = 1000;
+        long[] userIds = new long[users];
+        long[] balances = randomBalances(new Random(42), users);
+        for (int i = 0; i < users; i++) {
+            userIds[i] = i + 1;
+        }
+        long[] original = balances.clone();
+
+        List<SettlementStrategy.Transfer> transfers = strategy.settle(userIds, balances);
+
+        assertThat(transfers.size()).isLessThan(users);
+        assertSettles(userIds, balances, transfers);
+        assertThat(balances).isEqualTo(original);
+    }
+}
@@ -0,0 +1,194 @@
+package com.primewraps.service;
+
+import com.primewraps.dto.ExpenseRequest;
+import com.primewraps.model.Settlement;
+import com.primewraps.model.SettlementStatus;
+import com.primewraps.model.User;
+import com.primewraps.repository.SettlementRepository;
+import com.primewraps.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that persisting a settlement diff costs the same number of JDBC statements and batches whether 1, 10
+ * or 100 pairs were created, changed or cancelled.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:settlement-statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "settlements.strategy=greedy",
+        "settlements.partition-mode=global",
+        // Recomputes are run by the test, so keep background jobs from adding statements
+        "settlements.recompute.debounce-ms=3600000",
+        "settlements.recompute.max-delay-ms=3600000",
+        "settlements.overdue-sweep.initial-delay-ms=3600000",
+        "expenses.recurring.initial-delay-ms=3600000"})
+@WithMockUser(username = "admin", roles = "ADMIN")
+class SettlementPersistenceStatementCountTest {
+
+    private static final AtomicInteger preparedStatements = new AtomicInteger();
+    private static final AtomicInteger executedBatches = new AtomicInteger();
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Test
+    void diffCostsTheSameStatementsForAnyNumberOfPairs() {
+        userRepository.save(new User("admin", "password", Set.of("ADMIN")));
+
+        Map<Integer, List<Integer>> countsByPairs = new LinkedHashMap<>();
+        for (int pairs : new int[] {1, 10, 100}) {
+            countsByPairs.put(pairs, recomputeWithChangedPairs(pairs));
+        }
+
+        List<Integer> expected = countsByPairs.get(1);
+        assertThat(countsByPairs.get(10)).isEqualTo(expected);
+        assertThat(countsByPairs.get(100)).isEqualTo(expected);
+    }
+
+    // Helper method to create, change and cancel the settlements of the given number of new user pairs,
+    // returning the statements and batches of each of the three recomputes
+    private List<Integer> recomputeWithChangedPairs(int pairs) {
+        List<User> creditors = new ArrayList<>();
+        List<User> debtors = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            creditors.add(userRepository.save(new User("creditor-" + pairs + "-" + i, "password", Set.of("USER"))));
+            debtors.add(userRepository.save(new User("debtor-" + pairs + "-" + i, "password", Set.of("USER"))));
+        }
+
+        // Distinct amounts, so the greedy strategy settles every debtor with its own creditor
+        for (int i = 0; i < pairs; i++) {
+            createSharedExpense(creditors.get(i), debtors.get(i), 200 + 2 * i);
+        }
+        List<Integer> counts = new ArrayList<>(countRecompute());
+        assertThat(openSettlementsOf(creditors)).hasSize(pairs);
+
+        for (int i = 0; i < pairs; i++) {
+            createSharedExpense(creditors.get(i), debtors.get(i), 20);
+        }
+        counts.addAll(countRecompute());
+        assertThat(openSettlementsOf(creditors)).allSatisfy(settlement ->
+                assertThat(settlement.getAmount()).isGreaterThanOrEqualTo(new BigDecimal("110")));
+
+        // Debtors pay back their whole share, so every settlement of the pairs is cancelled
+        for (int i = 0; i < pairs; i++) {
+            createSharedExpense(debtors.get(i), creditors.get(i), 200 + 2 * i + 20);
+        }
+        counts.addAll(countRecompute());
+        assertThat(openSettlementsOf(creditors)).isEmpty();
+        return counts;
+    }
+
+    // Helper method to run a full recompute and return its prepared statements and executed batches
+    private List<Integer> countRecompute() {
+        preparedStatements.set(0);
+        executedBatches.set(0);
+        settlementService.updateAndPersistSettlements();
+        return List.of(preparedStatements.get(), executedBatches.get());
+    }
+
+    // Helper method to record an expense paid by one user and split equally with another
+    private void createSharedExpense(User paidBy, User splitWith, int amount) {
+        ExpenseRequest request = new ExpenseRequest();
+        request.setDescription("Shared expense");
+        request.setAmount(BigDecimal.valueOf(amount));
+        request.setCategory("MATERIALS");
+        request.setDate(LocalDateTime.of(2026, 1, 1, 9, 0));
+        request.setPaidByUserId(paidBy.getId());
+        request.setSharedExpense(true);
+        request.setSplitUserIds(List.of(splitWith.getId()));
+        expenseService.createExpense(request);
+    }
+
+    // Helper method to find the open settlements paid to the given users
+    private List<Settlement> openSettlementsOf(List<User> creditors) {
+        Set<Long> creditorIds = new java.util.HashSet<>();
+        creditors.forEach(creditor -> creditorIds.add(creditor.getId()));
+        return settlementRepository.findAll().stream()
+                .filter(settlement -> settlement.getStatus() == SettlementStatus.PENDING)
+                .filter(settlement -> creditorIds.contains(settlement.getToUser().getId()))
+                .toList();
+    }
+
+    /**
+     * Wraps the data source so every statement prepared and every batch executed is counted.
+     */
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        // Helper method to proxy a JDBC object, counting prepared statements and batches and wrapping what it returns
+        private static <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                Object result = invoke(method, target, args);
+                if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                    preparedStatements.incrementAndGet();
+                    return proxy(PreparedStatement.class, statement);
+                }
+                if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                    preparedStatements.incrementAndGet();
+                    return proxy(Statement.class, statement);
+                }
+                if (method.getName().equals("executeBatch")) {
+                    executedBatches.incrementAndGet();
+                }
+                if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                    return proxy(Connection.class, connection);
+                }
+                return result;
+            }));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.primewraps.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one settlement run for groups of 10, 100 and 1,000 users with random balances.
+ * Above its exact-search limit the minimum-transfer strategy runs the greedy match, so the
+ * larger groups show the cost of that check. See "Benchmarks" in EXPENSE_SYSTEM_README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementStrategyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int users;
+
+    @Param({"greedy", "minimum"})
+    private String strategyName;
+
+    private SettlementStrategy strategy;
+    private long[] userIds;
+    private long[] balances;
+
+    @Setup
+    public void setUp() {
+        strategy = strategyName.equals("minimum")
+                ? new MinimumTransferSettlementStrategy(18)
+                : new GreedySettlementStrategy();
+        userIds = new long[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = i + 1;
+        }
+        balances = GreedySettlementStrategyTest.randomBalances(new Random(42), users);
+    }
+
+    @Benchmark
+    public List<SettlementStrategy.Transfer> settle() {
+        return strategy.settle(userIds, balances);
+    }
+}
@@ -0,0 +1,91 @@
+package com.primewraps.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares splitting and margin arithmetic over 10,000 expenses done with BigDecimal, as the balance
+ * calculation did before, against the same work in whole cents with Money.
+ * See "Benchmarks" in EXPENSE_SYSTEM_README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int EXPENSES = 10_000;
+
+    private BigDecimal[] amounts;
+    private BigDecimal[] revenues;
+    private int[] splitCounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[EXPENSES];
+        revenues = new BigDecimal[EXPENSES];
+        splitCounts = new int[EXPENSES];
+        for (int i = 0; i < EXPENSES; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(1_000_000) + 1, 2);
+            revenues[i] = BigDecimal.valueOf(random.nextInt(2_000_000) + 1, 2);
+            splitCounts[i] = random.nextInt(5) + 1;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal splitWithBigDecimal() {
+        BigDecimal payerBalance = BigDecimal.ZERO;
+        for (int i = 0; i < EXPENSES; i++) {
+            BigDecimal perPerson = amounts[i].divide(BigDecimal.valueOf(splitCounts[i]), 2, RoundingMode.HALF_UP);
+            payerBalance = payerBalance.add(amounts[i]).subtract(perPerson);
+        }
+        return payerBalance;
+    }
+
+    @Benchmark
+    public long splitWithMoney() {
+        long payerBalance = 0;
+        for (int i = 0; i < EXPENSES; i++) {
+            long amountCents = Money.toCents(amounts[i]);
+            long[] shares = Money.allocate(amountCents, splitCounts[i]);
+            payerBalance += amountCents - shares[0];
+        }
+        return payerBalance;
+    }
+
+    @Benchmark
+    public BigDecimal marginWithBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < EXPENSES; i++) {
+            BigDecimal profit = revenues[i].subtract(amounts[i]);
+            total = total.add(profit.divide(revenues[i], 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long marginWithMoney() {
+        long total = 0;
+        for (int i = 0; i < EXPENSES; i++) {
+            Money revenue = Money.of(revenues[i]);
+            total += revenue.minus(Money.of(amounts[i])).percentOfInBasisPoints(revenue);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,107 @@
+package com.primewraps.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void allocateGivesTheRemainderToTheFirstShares() {
+        assertThat(Money.allocate(10000, 3)).containsExactly(3334, 3333, 3333);
+        assertThat(Money.allocate(10001, 3)).containsExactly(3334, 3334, 3333);
+        assertThat(Money.allocate(2, 5)).containsExactly(1, 1, 0, 0, 0);
+        assertThat(Money.allocate(9, 3)).containsExactly(3, 3, 3);
+        assertThat(Money.allocate(0, 4)).containsOnly(0L);
+    }
+
+    @Test
+    void allocateKeepsNegativeSharesAddingUpToTheTotal() {
+        // floorDiv rounds down, so the extra cent moves the first shares towards zero
+        assertThat(Money.allocate(-10001, 3)).containsExactly(-3333, -3334, -3334);
+        assertThat(Money.allocate(-2, 5)).containsExactly(0, 0, 0, -1, -1);
+        for (long cents = -1000; cents <= 1000; cents += 7) {
+            for (int parts = 1; parts <= 9; parts++) {
+                long[] shares = Money.allocate(cents, parts);
+                assertThat(Arrays.stream(shares).sum()).isEqualTo(cents);
+                assertThat(Arrays.stream(shares).max().getAsLong() - Arrays.stream(shares).min().getAsLong())
+                        .isLessThanOrEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void allocateRejectsNonPositiveParts() {
+        assertThatThrownBy(() -> Money.allocate(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.allocate(100, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void divideHalfUpRoundsTiesAwayFromZero() {
+        assertThat(Money.divideHalfUp(5, 2)).isEqualTo(3);
+        assertThat(Money.divideHalfUp(-5, 2)).isEqualTo(-3);
+        assertThat(Money.divideHalfUp(5, -2)).isEqualTo(-3);
+        assertThat(Money.divideHalfUp(-5, -2)).isEqualTo(3);
+        assertThat(Money.divideHalfUp(7, 2)).isEqualTo(4);
+        assertThat(Money.divideHalfUp(-7, 2)).isEqualTo(-4);
+    }
+
+    @Test
+    void divideHalfUpRoundsOtherRemaindersToTheNearest() {
+        assertThat(Money.divideHalfUp(4, 3)).isEqualTo(1);
+        assertThat(Money.divideHalfUp(5, 3)).isEqualTo(2);
+        assertThat(Money.divideHalfUp(-4, 3)).isEqualTo(-1);
+        assertThat(Money.divideHalfUp(-5, 3)).isEqualTo(-2);
+        assertThat(Money.divideHalfUp(6, 3)).isEqualTo(2);
+        assertThat(Money.divideHalfUp(0, 7)).isZero();
+        for (long a = -500; a <= 500; a++) {
+            for (long b : new long[] {-7, -2, 1, 3, 10}) {
+                long expected = BigDecimal.valueOf(a).divide(BigDecimal.valueOf(b), 0, RoundingMode.HALF_UP)
+                        .longValueExact();
+                assertThat(Money.divideHalfUp(a, b)).as("%d / %d", a, b).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void toCentsRoundsHalfUpToWholeCents() {
+        assertThat(Money.toCents(new BigDecimal("0.005"))).isEqualTo(1);
+        assertThat(Money.toCents(new BigDecimal("-0.005"))).isEqualTo(-1);
+        assertThat(Money.toCents(new BigDecimal("0.0049"))).isZero();
+        assertThat(Money.toCents(new BigDecimal("-0.0049"))).isZero();
+        assertThat(Money.toCents(new BigDecimal("12.345"))).isEqualTo(1235);
+        assertThat(Money.toCents(new BigDecimal("12.3449"))).isEqualTo(1234);
+        assertThat(Money.toCents(new BigDecimal("7"))).isEqualTo(700);
+        assertThat(Money.toCents(null)).isZero();
+    }
+
+    @Test
+    void convertsBackToBigDecimalWithTwoDecimals() {
+        assertThat(Money.toBigDecimal(-1234)).isEqualTo(new BigDecimal("-12.34"));
+        assertThat(Money.of(new BigDecimal("0.1")).toBigDecimal()).isEqualTo(new BigDecimal("0.10"));
+        assertThat(Money.of(new BigDecimal("19.999")).toString()).isEqualTo("20.00");
+    }
+
+    @Test
+    void percentOfRoundsHalfUpInBasisPoints() {
+        assertThat(Money.ofCents(1).percentOfInBasisPoints(Money.ofCents(3))).isEqualTo(3333);
+        assertThat(Money.ofCents(2).percentOfInBasisPoints(Money.ofCents(3))).isEqualTo(6667);
+        assertThat(Money.ofCents(-1).percentOfInBasisPoints(Money.ofCents(8))).isEqualTo(-1250);
+    }
+
+    @Test
+    void arithmeticStaysInCents() {
+        Money amount = Money.of(new BigDecimal("10.10")).plus(Money.ofCents(20)).minus(Money.ofCents(30));
+
+        assertThat(amount).isEqualTo(Money.ofCents(1000));
+        assertThat(amount.negate().signum()).isEqualTo(-1);
+        assertThat(Money.ofCents(5).minus(Money.ofCents(5))).isSameAs(Money.ZERO);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
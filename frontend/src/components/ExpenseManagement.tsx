@@ -32,6 +32,8 @@ const ExpenseManagement: React.FC = () => {
   const [filterCategory, setFilterCategory] = useState<string>('ALL');
   const [searchTerm, setSearchTerm] = useState('');
   const [currentUser, setCurrentUser] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const categories = [
     'ALL', 'MATERIALS', 'TOOLS', 'TRAVEL', 'MEALS', 'UTILITIES', 'INSURANCE',
@@ -41,10 +43,19 @@ const ExpenseManagement: React.FC = () => {
   const statuses = ['ALL', 'PENDING', 'APPROVED', 'REIMBURSED', 'REJECTED'];
 
   useEffect(() => {
-    fetchExpenses();
     getCurrentUser();
   }, []);
 
+  // Status and category are filtered on the server, so changing them reloads the first page
+  useEffect(() => {
+    fetchExpenses();
+  }, [filterStatus, filterCategory]);
+
+  const searchParams = () => ({
+    status: filterStatus === 'ALL' ? undefined : filterStatus,
+    category: filterCategory === 'ALL' ? undefined : filterCategory,
+  });
+
   const getCurrentUser = async () => {
     try {
       const token = localStorage.getItem('jwtToken');
@@ -62,11 +73,13 @@ const ExpenseManagement: React.FC = () => {
     try {
       setLoading(true);
       const token = localStorage.getItem('jwtToken');
-      const response = await axios.get(`${import.meta.env.VITE_API_URL}/expenses`, {
+      const response = await axios.get(`${import.meta.env.VITE_API_URL}/expenses/search`, {
+        params: searchParams(),
         headers: { Authorization: `Bearer ${token}` }
       });
       console.log('ExpenseManagement: Received expenses:', response.data);
-      setExpenses(response.data);
+      setExpenses(response.data.content);
+      setNextCursor(response.data.nextCursor);
       setError(null);
     } catch (err: any) {
       setError(err.response?.data?.message || 'Failed to fetch expenses');
@@ -75,6 +88,27 @@ const ExpenseManagement: React.FC = () => {
     }
   };
 
+  const loadMoreExpenses = async () => {
+    if (!nextCursor) {
+      return;
+    }
+
+    try {
+      setLoadingMore(true);
+      const token = localStorage.getItem('jwtToken');
+      const response = await axios.get(`${import.meta.env.VITE_API_URL}/expenses/search`, {
+        params: { ...searchParams(), cursor: nextCursor },
+        headers: { Authorization: `Bearer ${token}` }
+      });
+      setExpenses(prev => [...prev, ...response.data.content]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err: any) {
+      setError(err.response?.data?.message || 'Failed to fetch more expenses');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleDelete = async (id: number) => {
     if (!window.confirm('Are you sure you want to delete this expense?')) {
       return;
@@ -131,12 +165,8 @@ const ExpenseManagement: React.FC = () => {
   };
 
   const filteredExpenses = expenses.filter(expense => {
-    const matchesStatus = filterStatus === 'ALL' || expense.status === filterStatus;
-    const matchesCategory = filterCategory === 'ALL' || expense.category === filterCategory;
-    const matchesSearch = expense.description.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                         expense.paidByUsername.toLowerCase().includes(searchTerm.toLowerCase());
-
-    return matchesStatus && matchesCategory && matchesSearch;
+    return expense.description.toLowerCase().includes(searchTerm.toLowerCase()) ||
+           expense.paidByUsername.toLowerCase().includes(searchTerm.toLowerCase());
   });
 
   const totalAmount = filteredExpenses.reduce((sum, expense) => sum + expense.amount, 0);
@@ -348,6 +378,18 @@ const ExpenseManagement: React.FC = () => {
           </tbody>
         </table>
       </div>
+
+      {nextCursor && (
+        <div className="text-center mt-4">
+          <button
+            onClick={loadMoreExpenses}
+            disabled={loadingMore}
+            className="bg-gray-200 hover:bg-gray-300 text-gray-800 px-4 py-2 rounded transition-colors disabled:opacity-50"
+          >
+            {loadingMore ? 'Loading...' : 'Load more expenses'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
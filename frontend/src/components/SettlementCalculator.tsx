@@ -94,14 +94,21 @@ const SettlementCalculator: React.FC<SettlementCalculatorProps> = ({ refreshTrig
 
       setUsers(usersResponse.data);
 
-      // Fetch shared expenses
-      const expensesResponse = await axios.get(`${import.meta.env.VITE_API_URL}/expenses/shared`, {
-        headers: { Authorization: `Bearer ${token}` }
-      });
+      // Fetch shared expenses, following the page cursor until every page is loaded
+      const sharedExpenses: Expense[] = [];
+      let cursor: string | null = null;
+      do {
+        const expensesResponse: any = await axios.get(`${import.meta.env.VITE_API_URL}/expenses/shared`, {
+          params: { size: 100, cursor: cursor ?? undefined },
+          headers: { Authorization: `Bearer ${token}` }
+        });
+        sharedExpenses.push(...expensesResponse.data.content);
+        cursor = expensesResponse.data.nextCursor;
+      } while (cursor);
 
-      setExpenses(expensesResponse.data);
-      console.log('SettlementCalculator: Fetched', expensesResponse.data.length, 'shared expenses');
-      console.log('SettlementCalculator: Expense details:', expensesResponse.data);
+      setExpenses(sharedExpenses);
+      console.log('SettlementCalculator: Fetched', sharedExpenses.length, 'shared expenses');
+      console.log('SettlementCalculator: Expense details:', sharedExpenses);
 
       // Fetch existing settlements (both pending and paid)
       const settlementsResponse = await axios.get(`${import.meta.env.VITE_API_URL}/settlements`, {
@@ -113,22 +113,10 @@ const SettlementPayment: React.FC<SettlementPaymentProps> = ({ refreshTrigger, o
 
         console.log('Payment response:', response.data);
       } else {
-        // Partial payment - update the settlement amount to remaining balance
+        // Partial payment - the backend reduces the settlement to the remaining balance
+        // and records the paid portion in one request
         const remainingAmount = settlement.amount - amountToPay;
-        
-        // Update settlement amount to remaining balance
-        await axios.put(
-          `${import.meta.env.VITE_API_URL}/settlements/${settlementId}`,
-          {
-            ...settlement,
-            amount: remainingAmount
-          },
-          {
-            headers: { Authorization: `Bearer ${token}` }
-          }
-        );
 
-        // Create a new settlement record for the paid portion
         await axios.post(
           `${import.meta.env.VITE_API_URL}/settlements/partial-payment`,
           {
@@ -177,13 +165,13 @@ const SettlementPayment: React.FC<SettlementPaymentProps> = ({ refreshTrigger, o
       const token = localStorage.getItem('jwtToken');
       console.log('Creating settlements...');
       
-      // First, let's check what shared expenses exist
-      const expensesResponse = await axios.get(`${import.meta.env.VITE_API_URL}/expenses`, {
+      // First, let's check that at least one shared expense exists
+      const expensesResponse = await axios.get(`${import.meta.env.VITE_API_URL}/expenses/shared`, {
+        params: { size: 1 },
         headers: { Authorization: `Bearer ${token}` }
       });
-      console.log('All expenses:', expensesResponse.data);
       
-      const sharedExpenses = expensesResponse.data.filter((expense: any) => expense.sharedExpense);
+      const sharedExpenses = expensesResponse.data.content;
       console.log('Shared expenses:', sharedExpenses);
       
       if (sharedExpenses.length === 0) {